@@ -0,0 +1,15 @@
+@echo off
+rem Starts the Tag Library Documentation Generator from this runtime image.
+rem
+rem The class data sharing archive lib\tlddoc.jsa was created from a training
+rem run when the image was built. It is skipped silently if it does not match
+rem the image.
+rem
+rem TLDDOC_OPTS holds further JVM options. Unless it is set, only the client
+rem compiler is used, which is the fastest for small tag libraries.
+
+setlocal
+if not defined TLDDOC_OPTS set TLDDOC_OPTS=-XX:TieredStopAtLevel=1
+
+"%~dp0java" -XX:SharedArchiveFile="%~dp0..\lib\tlddoc.jsa" -Xshare:auto %TLDDOC_OPTS% ^
+    -m io.github.weblegacy.tlddoc/io.github.weblegacy.tlddoc.main.TldDoc %*
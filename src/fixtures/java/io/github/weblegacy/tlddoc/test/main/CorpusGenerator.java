@@ -0,0 +1,445 @@
+/*
+ * <license>
+ * Copyright (c) 2003-2004, Sun Microsystems, Inc.
+ * Copyright (c) 2022-2026, Web-Legacy
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of Sun Microsystems, Inc. nor the names of its
+ *       contributors may be used to endorse or promote products derived from
+ *       this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * </license>
+ */
+
+package io.github.weblegacy.tlddoc.test.main;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Generates synthetic corpora of tag libraries for tests and benchmarks: a number of libraries,
+ * each with a number of tags with a number of attributes. The libraries cycle through all
+ * supported JSP versions, unless a fixed version is set, and can be written as plain TLDs, as a JAR
+ * or as a WAR with a nested JAR and deep tag directories.
+ *
+ * <p>The {@code jmh} profile compiles this class together with the benchmarks.</p>
+ *
+ * @author ste-gr
+ */
+public final class CorpusGenerator {
+
+    /**
+     * The JSP versions the libraries cycle through.
+     */
+    public static final String[] JSP_VERSIONS = {"1.1", "1.2", "2.0", "2.1", "3.0", "3.1", "4.0"};
+
+    /**
+     * Name of the JAR in {@code WEB-INF/lib/} of a web application.
+     */
+    public static final String WAR_JAR = "WEB-INF/lib/taglib.jar";
+
+    /**
+     * Number of tag libraries.
+     */
+    private int libraries = 10;
+
+    /**
+     * Number of tags of each tag library.
+     */
+    private int tags = 10;
+
+    /**
+     * Number of attributes of each tag.
+     */
+    private int attributes = 5;
+
+    /**
+     * Number of lines of the body of each tag file.
+     */
+    private int bodyLines = 1;
+
+    /**
+     * Depth of the tag directories of a web application.
+     */
+    private int tagDirDepth = 3;
+
+    /**
+     * JSP version of all tag libraries, {@code null} to cycle through {@link #JSP_VERSIONS}.
+     */
+    private String jspVersion;
+
+    /**
+     * Sets the number of tag libraries.
+     *
+     * @param libraries number of tag libraries
+     *
+     * @return this generator
+     */
+    public CorpusGenerator libraries(int libraries) {
+        this.libraries = libraries;
+        return this;
+    }
+
+    /**
+     * Sets the number of tags of each tag library.
+     *
+     * @param tags number of tags
+     *
+     * @return this generator
+     */
+    public CorpusGenerator tags(int tags) {
+        this.tags = tags;
+        return this;
+    }
+
+    /**
+     * Sets the number of attributes of each tag.
+     *
+     * @param attributes number of attributes
+     *
+     * @return this generator
+     */
+    public CorpusGenerator attributes(int attributes) {
+        this.attributes = attributes;
+        return this;
+    }
+
+    /**
+     * Sets the number of lines of the body of each tag file.
+     *
+     * @param bodyLines number of lines
+     *
+     * @return this generator
+     */
+    public CorpusGenerator bodyLines(int bodyLines) {
+        this.bodyLines = bodyLines;
+        return this;
+    }
+
+    /**
+     * Sets the depth of the tag directories of a web application.
+     *
+     * @param tagDirDepth depth of the tag directories, {@code 1} for {@code /WEB-INF/tags/} only
+     *
+     * @return this generator
+     */
+    public CorpusGenerator tagDirDepth(int tagDirDepth) {
+        this.tagDirDepth = tagDirDepth;
+        return this;
+    }
+
+    /**
+     * Sets the JSP version of all tag libraries.
+     *
+     * @param jspVersion one of {@link #JSP_VERSIONS}, {@code null} to cycle through them
+     *
+     * @return this generator
+     */
+    public CorpusGenerator jspVersion(String jspVersion) {
+        this.jspVersion = jspVersion;
+        return this;
+    }
+
+    /**
+     * Writes all tag libraries as TLD files {@code lib<i>.tld} into the given directory.
+     *
+     * @param dir the directory to write to
+     *
+     * @return the written TLD files
+     *
+     * @throws IOException if an I/O error has occurred
+     */
+    public List<Path> writeTlds(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        final List<Path> result = new ArrayList<>(libraries);
+        for (int i = 0; i < libraries; i++) {
+            final Path tld = dir.resolve("lib" + i + ".tld");
+            Files.writeString(tld, tld(i));
+            result.add(tld);
+        }
+        return result;
+    }
+
+    /**
+     * Writes a JAR containing all tag libraries as {@code META-INF/lib<i>.tld}.
+     *
+     * @param jar the JAR to write
+     *
+     * @throws IOException if an I/O error has occurred
+     */
+    public void writeJar(Path jar) throws IOException {
+        final Map<String, byte[]> entries = new TreeMap<>();
+        for (int i = 0; i < libraries; i++) {
+            entries.put("META-INF/lib" + i + ".tld", bytes(tld(i)));
+        }
+        try (OutputStream out = Files.newOutputStream(jar)) {
+            writeJar(out, entries);
+        }
+    }
+
+    /**
+     * Writes a JAR with a manifest and the given entries.
+     *
+     * @param out     the stream to write to
+     * @param entries the entries by name
+     *
+     * @throws IOException if an I/O error has occurred
+     */
+    private static void writeJar(OutputStream out, Map<String, byte[]> entries)
+            throws IOException {
+
+        entries.put("META-INF/MANIFEST.MF", bytes("Manifest-Version: 1.0\n"));
+        writeZip(out, entries);
+    }
+
+    /**
+     * Writes a WAR. The tag libraries with an even index are placed below {@code WEB-INF/}, the
+     * ones with an odd index in the JAR {@link #WAR_JAR}. Each level of the tag directories below
+     * {@code WEB-INF/tags/} contains {@code tags} tag files.
+     *
+     * @param war the WAR to write
+     *
+     * @throws IOException if an I/O error has occurred
+     */
+    public void writeWar(Path war) throws IOException {
+        try (OutputStream out = Files.newOutputStream(war)) {
+            writeZip(out, webAppEntries());
+        }
+    }
+
+    /**
+     * Creates the entries of a web application.
+     *
+     * @return the entries by path
+     *
+     * @throws IOException if an I/O error has occurred
+     */
+    private Map<String, byte[]> webAppEntries() throws IOException {
+        final Map<String, byte[]> entries = new TreeMap<>();
+        final Map<String, byte[]> jar = new TreeMap<>();
+        entries.put("WEB-INF/web.xml", bytes("<web-app/>\n"));
+        for (int i = 0; i < libraries; i++) {
+            if (i % 2 == 0) {
+                entries.put("WEB-INF/tld/lib" + i + ".tld", bytes(tld(i)));
+            } else {
+                jar.put("META-INF/lib" + i + ".tld", bytes(tld(i)));
+            }
+        }
+        if (!jar.isEmpty()) {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            writeJar(out, jar);
+            entries.put(WAR_JAR, out.toByteArray());
+        }
+
+        final StringBuilder dir = new StringBuilder("WEB-INF/tags/");
+        for (int depth = 0; depth < tagDirDepth; depth++) {
+            for (int i = 0; i < tags; i++) {
+                entries.put(dir + "tag" + depth + "_" + i + ".tag",
+                        bytes(tagFile("tag" + depth + "_" + i)));
+            }
+            dir.append("level").append(depth + 1).append('/');
+        }
+        return entries;
+    }
+
+    /**
+     * Creates the TLD of the tag library with the given index. Its short name is
+     * {@code lib<library>}, its URI {@code urn:lib<library>}.
+     *
+     * @param library index of the tag library
+     *
+     * @return the TLD
+     */
+    public String tld(int library) {
+        final String version = jspVersion != null ? jspVersion
+                : JSP_VERSIONS[library % JSP_VERSIONS.length];
+        final String shortName = "lib" + library;
+        final boolean jsp11 = "1.1".equals(version);
+        final boolean jsp1 = version.startsWith("1.");
+
+        final StringBuilder sb = new StringBuilder(512 * tags * (attributes + 1));
+        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        if (jsp11) {
+            sb.append("<taglib>\n")
+                    .append("  <tlibversion>1.0</tlibversion>\n")
+                    .append("  <jspversion>1.1</jspversion>\n")
+                    .append("  <shortname>").append(shortName).append("</shortname>\n")
+                    .append("  <uri>urn:").append(shortName).append("</uri>\n")
+                    .append("  <info>Corpus tag library ").append(shortName).append("</info>\n");
+        } else if (jsp1) {
+            sb.append("<taglib xmlns=\"http://java.sun.com/JSP/TagLibraryDescriptor\">\n")
+                    .append("  <tlib-version>1.0</tlib-version>\n")
+                    .append("  <jsp-version>1.2</jsp-version>\n")
+                    .append("  <short-name>").append(shortName).append("</short-name>\n")
+                    .append("  <uri>urn:").append(shortName).append("</uri>\n")
+                    .append("  <description>Corpus tag library ").append(shortName)
+                    .append("</description>\n");
+        } else {
+            sb.append("<taglib xmlns=\"").append(namespace(version))
+                    .append("\" version=\"").append(version).append("\">\n")
+                    .append("  <description>Corpus tag library ").append(shortName)
+                    .append("</description>\n")
+                    .append("  <tlib-version>1.0</tlib-version>\n")
+                    .append("  <short-name>").append(shortName).append("</short-name>\n")
+                    .append("  <uri>urn:").append(shortName).append("</uri>\n");
+        }
+
+        for (int i = 0; i < tags; i++) {
+            sb.append("  <tag>\n");
+            if (jsp1) {
+                sb.append("    <name>tag").append(i).append("</name>\n")
+                        .append(jsp11 ? "    <tagclass>" : "    <tag-class>")
+                        .append("org.example.Tag").append(i)
+                        .append(jsp11 ? "</tagclass>\n" : "</tag-class>\n")
+                        .append(jsp11 ? "    <info>" : "    <description>")
+                        .append("Corpus tag ").append(i)
+                        .append(jsp11 ? "</info>\n" : "</description>\n");
+            } else {
+                sb.append("    <description>Corpus tag ").append(i)
+                        .append(" with a somewhat longer description, as most real tags have one.")
+                        .append("</description>\n")
+                        .append("    <name>tag").append(i).append("</name>\n")
+                        .append("    <tag-class>org.example.Tag").append(i)
+                        .append("</tag-class>\n")
+                        .append("    <body-content>scriptless</body-content>\n")
+                        .append("    <variable>\n")
+                        .append("      <name-given>var").append(i).append("</name-given>\n")
+                        .append("      <variable-class>java.lang.String</variable-class>\n")
+                        .append("      <scope>AT_END</scope>\n")
+                        .append("    </variable>\n");
+            }
+            for (int j = 0; j < attributes; j++) {
+                sb.append("    <attribute>\n");
+                if (!jsp1) {
+                    sb.append("      <description>Attribute ").append(j).append(" of tag ")
+                            .append(i).append("</description>\n");
+                }
+                sb.append("      <name>att").append(j).append("</name>\n")
+                        .append("      <required>").append(j == 0).append("</required>\n")
+                        .append("      <rtexprvalue>true</rtexprvalue>\n");
+                if (!jsp1) {
+                    sb.append("      <type>java.lang.String</type>\n");
+                }
+                sb.append("    </attribute>\n");
+            }
+            sb.append("  </tag>\n");
+        }
+
+        if (!jsp1) {
+            sb.append("  <function>\n")
+                    .append("    <name>function0</name>\n")
+                    .append("    <function-class>org.example.Functions</function-class>\n")
+                    .append("    <function-signature>java.lang.String function0(java.lang.String)")
+                    .append("</function-signature>\n")
+                    .append("  </function>\n");
+        }
+
+        sb.append("</taglib>\n");
+        return sb.toString();
+    }
+
+    /**
+     * Creates a tag file.
+     *
+     * @param name the name of the tag
+     *
+     * @return the tag file
+     */
+    public String tagFile(String name) {
+        final StringBuilder sb = new StringBuilder(128 * (attributes + bodyLines + 2));
+        sb.append("<%@ tag display-name=\"").append(name)
+                .append("\" body-content=\"scriptless\" description=\"Corpus tag file ")
+                .append(name).append("\" pageEncoding=\"UTF-8\" %>\n");
+        for (int i = 0; i < attributes; i++) {
+            sb.append("<%@ attribute name=\"att").append(i).append("\" required=\"")
+                    .append(i == 0).append("\" type=\"java.lang.String\" description=\"")
+                    .append("Attribute ").append(i).append(" of ").append(name)
+                    .append("\" %>\n");
+        }
+        sb.append("<%@ variable name-given=\"result\" variable-class=\"java.lang.String\"")
+                .append(" scope=\"AT_END\" %>\n");
+        for (int i = 0; i < bodyLines; i++) {
+            sb.append("<div class=\"row-").append(i).append("\">${att")
+                    .append(i % Math.max(attributes, 1))
+                    .append("} <%-- line ").append(i).append(" --%><jsp:doBody/></div>\n");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Writes a ZIP file.
+     *
+     * @param out     the stream to write to
+     * @param entries the entries by name
+     *
+     * @throws IOException if an I/O error has occurred
+     */
+    private static void writeZip(OutputStream out, Map<String, byte[]> entries)
+            throws IOException {
+
+        try (ZipOutputStream zip = new ZipOutputStream(out)) {
+            for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                zip.putNextEntry(new ZipEntry(entry.getKey()));
+                zip.write(entry.getValue());
+                zip.closeEntry();
+            }
+        }
+    }
+
+    /**
+     * Returns the namespace of the TLD of the given JSP version.
+     *
+     * @param version the JSP version, 2.0 or later
+     *
+     * @return the namespace
+     */
+    private static String namespace(String version) {
+        switch (version) {
+            case "2.0":
+                return "http://java.sun.com/xml/ns/j2ee";
+            case "2.1":
+                return "http://java.sun.com/xml/ns/javaee";
+            default:
+                return "https://jakarta.ee/xml/ns/jakartaee";
+        }
+    }
+
+    /**
+     * Encodes the text as UTF-8.
+     *
+     * @param text the text
+     *
+     * @return the encoded text
+     */
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * <license>
+ * Copyright (c) 2003-2004, Sun Microsystems, Inc.
+ * Copyright (c) 2022-2026, Web-Legacy
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of Sun Microsystems, Inc. nor the names of its
+ *       contributors may be used to endorse or promote products derived from
+ *       this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * </license>
+ */
+
+package io.github.weblegacy.tlddoc.benchmark;
+
+import io.github.weblegacy.tlddoc.WarJarTldFileTagLibrary;
+import io.github.weblegacy.tlddoc.main.TldDocGenerator;
+import io.github.weblegacy.tlddoc.test.main.CorpusGenerator;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.TransformerException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.w3c.dom.Document;
+import org.xml.sax.SAXException;
+
+/**
+ * Measures finding the tag libraries in JARs and WARs and reading a TLD from a JAR nested in a
+ * WAR.
+ *
+ * @author ste-gr
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DiscoveryBenchmark {
+
+    /**
+     * The number of TLDs in the JAR, and in the WAR and the JAR nested in it.
+     */
+    @Param({"5", "50"})
+    public int tlds;
+
+    /**
+     * The temporary directory containing the JAR and the WAR.
+     */
+    private Path dir;
+
+    /**
+     * The JAR with the TLDs.
+     */
+    private Path jar;
+
+    /**
+     * The WAR with the TLDs, the nested JAR and the tag files.
+     */
+    private Path war;
+
+    /**
+     * The document builder to read the TLD with.
+     */
+    private DocumentBuilder documentBuilder;
+
+    /**
+     * Creates the JAR and the WAR.
+     *
+     * @throws IOException                  if an I/O error has occurred
+     * @throws ParserConfigurationException if the document builder could not be created
+     */
+    @Setup
+    public void setUp() throws IOException, ParserConfigurationException {
+        dir = Files.createTempDirectory("tlddoc-bench");
+        jar = dir.resolve("taglib.jar");
+        war = dir.resolve("webapp.war");
+        new CorpusGenerator().libraries(tlds).tags(20).writeJar(jar);
+        new CorpusGenerator().libraries(2 * tlds).tags(20).tagDirDepth(1).writeWar(war);
+
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        documentBuilder = factory.newDocumentBuilder();
+    }
+
+    /**
+     * Deletes the JAR and the WAR.
+     *
+     * @throws IOException if an I/O error has occurred
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(jar);
+        Files.deleteIfExists(war);
+        Files.deleteIfExists(dir);
+    }
+
+    /**
+     * Finds the tag libraries of the JAR.
+     *
+     * @return the generator, to keep the result alive
+     */
+    @Benchmark
+    public TldDocGenerator addJar() {
+        TldDocGenerator generator = new TldDocGenerator();
+        generator.setQuiet(true);
+        generator.addJar(jar);
+        return generator;
+    }
+
+    /**
+     * Finds the tag libraries of the WAR.
+     *
+     * @return the generator, to keep the result alive
+     */
+    @Benchmark
+    public TldDocGenerator addWar() {
+        TldDocGenerator generator = new TldDocGenerator();
+        generator.setQuiet(true);
+        generator.addWar(war);
+        return generator;
+    }
+
+    /**
+     * Reads the last TLD of the JAR nested in the WAR.
+     *
+     * @return the TLD
+     *
+     * @throws IOException          if an I/O error has occurred
+     * @throws SAXException         if the TLD could not be parsed
+     * @throws TransformerException if the TLD could not be transformed
+     */
+    @Benchmark
+    public Document warJarTld() throws IOException, SAXException, TransformerException {
+        try (WarJarTldFileTagLibrary tagLibrary = new WarJarTldFileTagLibrary(war,
+                CorpusGenerator.WAR_JAR, "META-INF/lib" + (2 * tlds - 1) + ".tld")) {
+            return tagLibrary.getTldDocument(documentBuilder);
+        }
+    }
+}
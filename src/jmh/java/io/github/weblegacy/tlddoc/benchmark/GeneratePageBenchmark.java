@@ -0,0 +1,129 @@
+/*
+ * <license>
+ * Copyright (c) 2003-2004, Sun Microsystems, Inc.
+ * Copyright (c) 2022-2026, Web-Legacy
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of Sun Microsystems, Inc. nor the names of its
+ *       contributors may be used to endorse or promote products derived from
+ *       this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * </license>
+ */
+
+package io.github.weblegacy.tlddoc.benchmark;
+
+import io.github.weblegacy.tlddoc.main.GeneratorException;
+import io.github.weblegacy.tlddoc.main.TldDocGenerator;
+import io.github.weblegacy.tlddoc.test.main.CorpusGenerator;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures rendering one page with each of the page stylesheets, from a summary of several tag
+ * libraries.
+ *
+ * @author ste-gr
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class GeneratePageBenchmark {
+
+    /**
+     * The page to render, one for each stylesheet.
+     */
+    @Param({"index.html", "help-doc.html", "overview-frame.html", "alltags-frame.html",
+        "alltags-noframe.html", "overview-summary.html", "lib0/tld-frame.html",
+        "lib0/tld-summary.html", "lib0/tag0.html", "lib0/function0.fn.html"})
+    public String page;
+
+    /**
+     * The number of tag libraries in the summary.
+     */
+    @Param({"10"})
+    public int taglibs;
+
+    /**
+     * The temporary directory containing the TLDs.
+     */
+    private Path dir;
+
+    /**
+     * The generator with the loaded tag libraries.
+     */
+    private TldDocGenerator generator;
+
+    /**
+     * Creates and loads the TLDs.
+     *
+     * @throws IOException        if an I/O error has occurred
+     * @throws GeneratorException any error while loading the TLDs
+     */
+    @Setup
+    public void setUp() throws IOException, GeneratorException {
+        dir = Files.createTempDirectory("tlddoc-bench");
+        generator = new TldDocGenerator();
+        generator.setQuiet(true);
+        for (Path tld : new CorpusGenerator().libraries(taglibs).tags(30).attributes(8)
+                .jspVersion("2.0").writeTlds(dir)) {
+            generator.addTld(tld);
+        }
+        generator.load();
+    }
+
+    /**
+     * Deletes the TLDs.
+     *
+     * @throws IOException if an I/O error has occurred
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        for (int i = 0; i < taglibs; i++) {
+            Files.deleteIfExists(dir.resolve("lib" + i + ".tld"));
+        }
+        Files.deleteIfExists(dir);
+    }
+
+    /**
+     * Renders the page.
+     *
+     * @return {@code true} if the page was rendered
+     *
+     * @throws GeneratorException any error while rendering the page
+     */
+    @Benchmark
+    public boolean generatePage() throws GeneratorException {
+        return generator.renderPage(page, OutputStream.nullOutputStream());
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * <license>
+ * Copyright (c) 2003-2004, Sun Microsystems, Inc.
+ * Copyright (c) 2022-2026, Web-Legacy
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of Sun Microsystems, Inc. nor the names of its
+ *       contributors may be used to endorse or promote products derived from
+ *       this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * </license>
+ */
+
+package io.github.weblegacy.tlddoc.benchmark;
+
+import io.github.weblegacy.tlddoc.tagfileparser.javacc.ParseException;
+import io.github.weblegacy.tlddoc.tagfileparser.javacc.TagFile;
+import io.github.weblegacy.tlddoc.test.main.CorpusGenerator;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures parsing the directives of a tag file.
+ *
+ * @author ste-gr
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TagFileParseBenchmark {
+
+    /**
+     * The size of the tag file: {@code small} has a few directives and a short body,
+     * {@code large} many directives and a long body.
+     */
+    @Param({"small", "large"})
+    public String size;
+
+    /**
+     * The content of the tag file.
+     */
+    private byte[] content;
+
+    /**
+     * Creates the tag file.
+     */
+    @Setup
+    public void setUp() {
+        content = ("small".equals(size)
+                ? new CorpusGenerator().attributes(3).bodyLines(10).tagFile("small")
+                : new CorpusGenerator().attributes(60).bodyLines(2000).tagFile("large"))
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Parses the tag file.
+     *
+     * @return the parsed tag file
+     *
+     * @throws ParseException if the tag file could not be parsed
+     * @throws IOException    if an I/O error has occurred
+     */
+    @Benchmark
+    public TagFile parse() throws ParseException, IOException {
+        return TagFile.parse(new ByteArrayInputStream(content));
+    }
+}
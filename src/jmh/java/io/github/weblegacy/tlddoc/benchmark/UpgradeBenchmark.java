@@ -0,0 +1,123 @@
+/*
+ * <license>
+ * Copyright (c) 2003-2004, Sun Microsystems, Inc.
+ * Copyright (c) 2022-2026, Web-Legacy
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of Sun Microsystems, Inc. nor the names of its
+ *       contributors may be used to endorse or promote products derived from
+ *       this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * </license>
+ */
+
+package io.github.weblegacy.tlddoc.benchmark;
+
+import io.github.weblegacy.tlddoc.main.GeneratorException;
+import io.github.weblegacy.tlddoc.main.TldDocGenerator;
+import io.github.weblegacy.tlddoc.test.main.CorpusGenerator;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures loading a TLD, for each JSP version the upgrade to the current version starts at. The
+ * older the TLD, the more conversion steps are run.
+ *
+ * @author ste-gr
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class UpgradeBenchmark {
+
+    /**
+     * The JSP version of the TLD.
+     */
+    @Param({"1.1", "1.2", "2.0", "2.1", "3.0", "3.1", "4.0"})
+    public String jspVersion;
+
+    /**
+     * The number of tags of the TLD.
+     */
+    @Param({"50"})
+    public int tags;
+
+    /**
+     * The temporary directory containing the TLD.
+     */
+    private Path dir;
+
+    /**
+     * The TLD to load.
+     */
+    private Path tld;
+
+    /**
+     * Creates the TLD.
+     *
+     * @throws IOException if an I/O error has occurred
+     */
+    @Setup
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("tlddoc-bench");
+        tld = dir.resolve("bench.tld");
+        Files.writeString(tld, new CorpusGenerator().tags(tags).attributes(8)
+                .jspVersion(jspVersion).tld(0));
+    }
+
+    /**
+     * Deletes the TLD.
+     *
+     * @throws IOException if an I/O error has occurred
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(tld);
+        Files.deleteIfExists(dir);
+    }
+
+    /**
+     * Loads and upgrades the TLD.
+     *
+     * @return the generator, to keep the result alive
+     *
+     * @throws GeneratorException any error while loading the TLD
+     */
+    @Benchmark
+    public TldDocGenerator load() throws GeneratorException {
+        TldDocGenerator generator = new TldDocGenerator();
+        generator.setQuiet(true);
+        generator.addTld(tld);
+        generator.load();
+        return generator;
+    }
+}
@@ -56,6 +56,11 @@ public final class Constants {
     public static final String DEFAULT_DOC_TITLE
             = "Tag Library Documentation Generator - Generated Documentation";
 
+    /**
+     * File name extension of a tag library fragment.
+     */
+    public static final String FRAGMENT_EXTENSION = ".fragment.xml";
+
     /**
      * Namespace for Jakarta EE.
      */
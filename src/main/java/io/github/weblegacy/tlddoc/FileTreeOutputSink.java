@@ -0,0 +1,95 @@
+/*
+ * <license>
+ * Copyright (c) 2003-2004, Sun Microsystems, Inc.
+ * Copyright (c) 2022-2026, Web-Legacy
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of Sun Microsystems, Inc. nor the names of its
+ *       contributors may be used to endorse or promote products derived from
+ *       this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * </license>
+ */
+
+
+package io.github.weblegacy.tlddoc;
+
+import io.github.weblegacy.tlddoc.main.OutputSink;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Output sink which writes each generated file into a directory tree.
+ *
+ * @author ste-gr
+ */
+public class FileTreeOutputSink implements OutputSink {
+
+    /**
+     * The output directory for generated files.
+     */
+    private final Path outputDirectory;
+
+    /**
+     * The directories which are known to exist.
+     */
+    private final Set<Path> createdDirectories = new HashSet<>();
+
+    /**
+     * Creates a new instance of {@link FileTreeOutputSink}.
+     *
+     * @param outputDirectory the output directory for generated files
+     *
+     * @throws IOException if an I/O error has occurred
+     */
+    public FileTreeOutputSink(final Path outputDirectory) throws IOException {
+        this.outputDirectory = outputDirectory;
+        Files.createDirectories(outputDirectory);
+        createdDirectories.add(outputDirectory);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public OutputStream newOutputStream(final String path) throws IOException {
+        final Path file = outputDirectory.resolve(path);
+        final Path parent = file.getParent();
+        if (parent != null && createdDirectories.add(parent)) {
+            Files.createDirectories(parent);
+        }
+
+        return new BufferedOutputStream(Files.newOutputStream(file));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+        // Nothing to do
+    }
+}
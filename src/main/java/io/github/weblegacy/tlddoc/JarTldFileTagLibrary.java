@@ -31,7 +31,9 @@
 
 package io.github.weblegacy.tlddoc;
 
+import java.io.IOException;
 import java.nio.file.Path;
+import java.util.jar.JarEntry;
 
 /**
  * Tag library that gets its information from a TLD file in a JAR.
@@ -49,4 +51,14 @@ public class JarTldFileTagLibrary extends WarJarTagLibrary {
     public JarTldFileTagLibrary(final Path jar, final String tldPath) {
         super(jar, tldPath);
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getTldSize() throws IOException {
+        ensureOpen();
+        final JarEntry jarEntry = getWarJarFile().getJarEntry(getEntry());
+        return jarEntry == null ? -1 : jarEntry.getSize();
+    }
 }
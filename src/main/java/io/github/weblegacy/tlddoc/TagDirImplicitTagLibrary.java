@@ -34,22 +34,15 @@ package io.github.weblegacy.tlddoc;
 import io.github.weblegacy.tlddoc.main.TagLibrary;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.StringReader;
-import java.io.StringWriter;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import javax.xml.parsers.DocumentBuilder;
-import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.TransformerFactoryConfigurationError;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
 import org.w3c.dom.DOMException;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
-import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 
 /**
@@ -64,13 +57,29 @@ public class TagDirImplicitTagLibrary implements TagLibrary {
      */
     private final Path dir;
 
+    /**
+     * Resolves the tag files relative to the web application.
+     */
+    private final WebAppResourceResolver resolver;
+
     /**
      * Creates a new instance of {@link TagDirImplicitTagLibrary}.
      *
      * @param dir directory containing the tag files
      */
     public TagDirImplicitTagLibrary(Path dir) {
+        this(dir, null);
+    }
+
+    /**
+     * Creates a new instance of {@link TagDirImplicitTagLibrary}.
+     *
+     * @param dir        directory containing the tag files
+     * @param webAppRoot root of the web application or {@code null} if not known
+     */
+    public TagDirImplicitTagLibrary(Path dir, Path webAppRoot) {
         this.dir = dir;
+        this.resolver = new WebAppResourceResolver(dir, webAppRoot);
     }
 
     /**
@@ -86,7 +95,7 @@ public class TagDirImplicitTagLibrary implements TagLibrary {
      */
     @Override
     public InputStream getResource(String path) throws IOException {
-        return Utils.backtrackPath(dir, path);
+        return resolver.resolve(path);
     }
 
     /**
@@ -137,7 +146,7 @@ public class TagDirImplicitTagLibrary implements TagLibrary {
             }
         }
 
-        return recreateDocument(documentBuilder, result);
+        return result;
     }
 
     /**
@@ -165,13 +174,13 @@ public class TagDirImplicitTagLibrary implements TagLibrary {
         result.appendChild(taglibElement);
 
         // Add <description>
-        Element descriptionElement = result.createElement("description");
+        Element descriptionElement = createElement(result, "description");
         descriptionElement.appendChild(result.createTextNode(
                 "Implicit tag library for tag file directory " + path));
         taglibElement.appendChild(descriptionElement);
 
         // Add <tlib-version> of 1.0
-        Element tlibVersionElement = result.createElement("tlib-version");
+        Element tlibVersionElement = createElement(result, "tlib-version");
         tlibVersionElement.appendChild(result.createTextNode("1.0"));
         taglibElement.appendChild(tlibVersionElement);
 
@@ -205,11 +214,11 @@ public class TagDirImplicitTagLibrary implements TagLibrary {
                 shortName = shortName.replace('/', '-');
                 break;
         }
-        Element shortNameElement = result.createElement("short-name");
+        Element shortNameElement = createElement(result, "short-name");
         shortNameElement.appendChild(result.createTextNode(shortName));
         taglibElement.appendChild(shortNameElement);
 
-        Element uriElement = result.createElement("uri");
+        Element uriElement = createElement(result, "uri");
         uriElement.appendChild(result.createTextNode(path));
         taglibElement.appendChild(uriElement);
 
@@ -229,45 +238,33 @@ public class TagDirImplicitTagLibrary implements TagLibrary {
     static void createTagEntry(final Document result, final String tagName, final String tagPath,
             Element taglibElement) throws DOMException {
 
-        final Element tagFileElement = result.createElement("tag-file");
-        final Element nameElement = result.createElement("name");
+        final Element tagFileElement = createElement(result, "tag-file");
+        final Element nameElement = createElement(result, "name");
         nameElement.appendChild(result.createTextNode(tagName));
         tagFileElement.appendChild(nameElement);
 
-        final Element pathElement = result.createElement("path");
+        final Element pathElement = createElement(result, "path");
         pathElement.appendChild(result.createTextNode(tagPath));
         tagFileElement.appendChild(pathElement);
         taglibElement.appendChild(tagFileElement);
     }
 
     /**
-     * Recreates the XML document. JDK 1.4 does not correctly import the node into the tree, so
-     * simulate reading this entry from a file. There might be a better / more efficient way to do
-     * this, but this works.
+     * Creates an element in the Jakarta EE namespace. All elements of an implicit tag library are
+     * created namespace-aware, so the document can be passed to the upgrade pipeline as it is,
+     * without serializing and re-parsing it first.
      *
-     * @param documentBuilder {@code DocumentBuilder} to obtain DOM Document for creating an
-     *                        XML-document.
-     * @param result          XML-document to recreate
+     * @param result    XML-document to create the element for
+     * @param localName local name of the element
      *
-     * @return the recreated XML-document
+     * @return new created element
      *
-     * @throws IOException                          if an I/O error has occurred
-     * @throws SAXException                         If any parse errors occur.
-     * @throws TransformerFactoryConfigurationError Thrown in case of {@linkplain
-     * java.util.ServiceConfigurationError service configuration error} or if the implementation is
-     *                                              not available or cannot be instantiated.
-     * @throws TransformerException                 If an unrecoverable error occurs during the
-     *                                              course of the transformation.
+     * @throws DOMException if an XML error has occurred
      */
-    static Document recreateDocument(final DocumentBuilder documentBuilder, final Document result)
-            throws IOException, TransformerFactoryConfigurationError, TransformerException,
-            SAXException {
-
-        final StringWriter buffer = new StringWriter();
-        Transformer transformer = TransformerFactory.newInstance().newTransformer();
-        transformer.transform(new DOMSource(result), new StreamResult(buffer));
+    private static Element createElement(final Document result, final String localName)
+            throws DOMException {
 
-        return documentBuilder.parse(new InputSource(new StringReader(buffer.toString())));
+        return result.createElementNS(Constants.NS_JAKARTAEE, localName);
     }
 
     /**
@@ -0,0 +1,274 @@
+/*
+ * <license>
+ * Copyright (c) 2003-2004, Sun Microsystems, Inc.
+ * Copyright (c) 2022-2026, Web-Legacy
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of Sun Microsystems, Inc. nor the names of its
+ *       contributors may be used to endorse or promote products derived from
+ *       this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * </license>
+ */
+
+
+package io.github.weblegacy.tlddoc;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+import org.xml.sax.ext.LexicalHandler;
+
+/**
+ * Forwards all SAX events to two handlers, e.g. to build the result of a transformation and to
+ * write a copy of it at the same time, without running the transformation twice. Lexical events
+ * are forwarded to each handler which is a {@link LexicalHandler} too.
+ *
+ * @author ste-gr
+ */
+public final class TeeContentHandler implements ContentHandler, LexicalHandler {
+
+    /**
+     * The first handler.
+     */
+    private final ContentHandler first;
+
+    /**
+     * The second handler.
+     */
+    private final ContentHandler second;
+
+    /**
+     * The first handler as lexical handler or {@code null} if it is none.
+     */
+    private final LexicalHandler firstLexical;
+
+    /**
+     * The second handler as lexical handler or {@code null} if it is none.
+     */
+    private final LexicalHandler secondLexical;
+
+    /**
+     * Creates a new instance of {@link TeeContentHandler}.
+     *
+     * @param first  the handler to receive each event first
+     * @param second the handler to receive each event second
+     */
+    public TeeContentHandler(ContentHandler first, ContentHandler second) {
+        this.first = first;
+        this.second = second;
+        this.firstLexical = first instanceof LexicalHandler ? (LexicalHandler) first : null;
+        this.secondLexical = second instanceof LexicalHandler ? (LexicalHandler) second : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setDocumentLocator(Locator locator) {
+        first.setDocumentLocator(locator);
+        second.setDocumentLocator(locator);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void startDocument() throws SAXException {
+        first.startDocument();
+        second.startDocument();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void endDocument() throws SAXException {
+        first.endDocument();
+        second.endDocument();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void startPrefixMapping(String prefix, String uri) throws SAXException {
+        first.startPrefixMapping(prefix, uri);
+        second.startPrefixMapping(prefix, uri);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void endPrefixMapping(String prefix) throws SAXException {
+        first.endPrefixMapping(prefix);
+        second.endPrefixMapping(prefix);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes atts)
+            throws SAXException {
+
+        first.startElement(uri, localName, qName, atts);
+        second.startElement(uri, localName, qName, atts);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void endElement(String uri, String localName, String qName) throws SAXException {
+        first.endElement(uri, localName, qName);
+        second.endElement(uri, localName, qName);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void characters(char[] ch, int start, int length) throws SAXException {
+        first.characters(ch, start, length);
+        second.characters(ch, start, length);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void ignorableWhitespace(char[] ch, int start, int length) throws SAXException {
+        first.ignorableWhitespace(ch, start, length);
+        second.ignorableWhitespace(ch, start, length);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void processingInstruction(String target, String data) throws SAXException {
+        first.processingInstruction(target, data);
+        second.processingInstruction(target, data);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void skippedEntity(String name) throws SAXException {
+        first.skippedEntity(name);
+        second.skippedEntity(name);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void startDTD(String name, String publicId, String systemId) throws SAXException {
+        if (firstLexical != null) {
+            firstLexical.startDTD(name, publicId, systemId);
+        }
+        if (secondLexical != null) {
+            secondLexical.startDTD(name, publicId, systemId);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void endDTD() throws SAXException {
+        if (firstLexical != null) {
+            firstLexical.endDTD();
+        }
+        if (secondLexical != null) {
+            secondLexical.endDTD();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void startEntity(String name) throws SAXException {
+        if (firstLexical != null) {
+            firstLexical.startEntity(name);
+        }
+        if (secondLexical != null) {
+            secondLexical.startEntity(name);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void endEntity(String name) throws SAXException {
+        if (firstLexical != null) {
+            firstLexical.endEntity(name);
+        }
+        if (secondLexical != null) {
+            secondLexical.endEntity(name);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void startCDATA() throws SAXException {
+        if (firstLexical != null) {
+            firstLexical.startCDATA();
+        }
+        if (secondLexical != null) {
+            secondLexical.startCDATA();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void endCDATA() throws SAXException {
+        if (firstLexical != null) {
+            firstLexical.endCDATA();
+        }
+        if (secondLexical != null) {
+            secondLexical.endCDATA();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void comment(char[] ch, int start, int length) throws SAXException {
+        if (firstLexical != null) {
+            firstLexical.comment(ch, start, length);
+        }
+        if (secondLexical != null) {
+            secondLexical.comment(ch, start, length);
+        }
+    }
+}
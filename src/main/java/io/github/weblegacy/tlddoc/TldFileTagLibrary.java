@@ -55,13 +55,29 @@ public class TldFileTagLibrary implements TagLibrary {
      */
     private final Path tldFile;
 
+    /**
+     * Resolves the tag files relative to the web application.
+     */
+    private final WebAppResourceResolver resolver;
+
     /**
      * Creates a new instance of {@link TldFileTagLibrary}.
      *
      * @param tldFile location of the TLD file for this tag library
      */
     public TldFileTagLibrary(Path tldFile) {
+        this(tldFile, null);
+    }
+
+    /**
+     * Creates a new instance of {@link TldFileTagLibrary}.
+     *
+     * @param tldFile    location of the TLD file for this tag library
+     * @param webAppRoot root of the web application or {@code null} if not known
+     */
+    public TldFileTagLibrary(Path tldFile, Path webAppRoot) {
         this.tldFile = tldFile;
+        this.resolver = new WebAppResourceResolver(tldFile.getParent(), webAppRoot);
     }
 
     /**
@@ -90,7 +106,23 @@ public class TldFileTagLibrary implements TagLibrary {
      */
     @Override
     public InputStream getResource(String path) throws IOException {
-        return Utils.backtrackPath(tldFile.getParent(), path);
+        return resolver.resolve(path);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getTldSize() throws IOException {
+        return Files.size(tldFile);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public byte[] getTldBytes() throws IOException {
+        return Files.readAllBytes(tldFile);
     }
 
     /**
@@ -32,7 +32,6 @@
 package io.github.weblegacy.tlddoc;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.nio.file.DirectoryStream;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
@@ -186,6 +185,17 @@ public final class Utils {
         return file.toLowerCase(Locale.ROOT).endsWith(".jar");
     }
 
+    /**
+     * Checks if the file is a tag library fragment (ends with {@code .fragment.xml}).
+     *
+     * @param file to check
+     *
+     * @return {@code true} if tag library fragment
+     */
+    public static boolean isFragment(final Path file) {
+        return getLowerFileName(file).endsWith(Constants.FRAGMENT_EXTENSION);
+    }
+
     /**
      * Process all filtered files under the given directory, recursively.
      *
@@ -261,34 +271,4 @@ public final class Utils {
             }
         }
     }
-
-    /**
-     * Start from the dir and backtrack, using the path as a relative path.
-     *
-     * <p>For example:</p>
-     * <ul>
-     * <li>dir: /home/mroth/test/sample/WEB-INF/tags/mytags</li>
-     * <li>path: /WEB-INF/tags/mytags/tag1.tag</li>
-     * <li>returns: /home/mroth/test/sample/WEB-INF/tags/mytags/tag1.tag</li>
-     * </ul>
-     *
-     * @param dir  the start-directory
-     * @param path the path to backtrack
-     *
-     * @return resolved path as {@link InputStream} or {@code null} when not found
-     *
-     * @throws IOException if an I/O error has occurred
-     */
-    public static InputStream backtrackPath(Path dir, String path) throws IOException {
-        if (path.startsWith("/")) {
-            path = path.substring(1);
-        }
-
-        Path look = null;
-        while (dir != null && !Files.exists(look = dir.resolve(path))) {
-            dir = dir.getParent();
-        }
-
-        return look != null && Files.exists(look) ? Files.newInputStream(look) : null;
-    }
 }
@@ -112,6 +112,16 @@ public class WarJarTagLibrary implements TagLibrary {
         return null;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public byte[] getTldBytes() throws IOException {
+        try (InputStream in = getInputStream(entry)) {
+            return in == null ? null : in.readAllBytes();
+        }
+    }
+
     /**
      * Returns an input stream for reading the contents of the specified WAR/JAR-file entry.
      *
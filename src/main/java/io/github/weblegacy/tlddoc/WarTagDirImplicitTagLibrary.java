@@ -103,6 +103,16 @@ public class WarTagDirImplicitTagLibrary extends WarJarTagLibrary {
             }
         }
 
-        return TagDirImplicitTagLibrary.recreateDocument(documentBuilder, result);
+        return result;
+    }
+
+    /**
+     * Returns {@code null}, as the TLD of an implicit tag library is generated.
+     *
+     * @return always {@code null}
+     */
+    @Override
+    public byte[] getTldBytes() {
+        return null;
     }
 }
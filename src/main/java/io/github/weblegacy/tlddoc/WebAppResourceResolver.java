@@ -0,0 +1,144 @@
+/*
+ * <license>
+ * Copyright (c) 2003-2004, Sun Microsystems, Inc.
+ * Copyright (c) 2022-2026, Web-Legacy
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of Sun Microsystems, Inc. nor the names of its
+ *       contributors may be used to endorse or promote products derived from
+ *       this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * </license>
+ */
+
+package io.github.weblegacy.tlddoc;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Resolves web-application relative paths (e.g. {@code /WEB-INF/tags/mytags/tag1.tag}) of an
+ * exploded web application.
+ *
+ * <p>The root of the web application is either known up front or is found once by backtracking
+ * from the start directory. It is then cached, so every further path is resolved with a single
+ * file-system lookup.</p>
+ *
+ * @author ste-gr
+ */
+final class WebAppResourceResolver {
+
+    /**
+     * The directory to start backtracking from.
+     */
+    private final Path start;
+
+    /**
+     * The root of the web application, or {@code null} if not known yet.
+     */
+    private Path root;
+
+    /**
+     * Creates a new instance of {@link WebAppResourceResolver} with an unknown web application
+     * root.
+     *
+     * @param start the directory to start backtracking from
+     */
+    WebAppResourceResolver(final Path start) {
+        this(start, null);
+    }
+
+    /**
+     * Creates a new instance of {@link WebAppResourceResolver}.
+     *
+     * @param start the directory to start backtracking from
+     * @param root  the root of the web application or {@code null} if not known
+     */
+    WebAppResourceResolver(final Path start, final Path root) {
+        this.start = start;
+        this.root = root;
+    }
+
+    /**
+     * Resolves the path against the root of the web application. If the root is not known yet,
+     * start from the start-directory and backtrack, using the path as a relative path.
+     *
+     * <p>For example:</p>
+     * <ul>
+     * <li>start: /home/mroth/test/sample/WEB-INF/tags/mytags</li>
+     * <li>path: /WEB-INF/tags/mytags/tag1.tag</li>
+     * <li>root: /home/mroth/test/sample</li>
+     * <li>returns: /home/mroth/test/sample/WEB-INF/tags/mytags/tag1.tag</li>
+     * </ul>
+     *
+     * @param path the path to resolve
+     *
+     * @return resolved path as {@link InputStream} or {@code null} when not found
+     *
+     * @throws IOException if an I/O error has occurred
+     */
+    InputStream resolve(String path) throws IOException {
+        if (path.startsWith("/")) {
+            path = path.substring(1);
+        }
+
+        final Path knownRoot = root;
+        if (knownRoot != null) {
+            final InputStream in = open(knownRoot.resolve(path));
+            if (in != null) {
+                return in;
+            }
+        }
+
+        for (Path dir = start; dir != null; dir = dir.getParent()) {
+            if (!dir.equals(knownRoot)) {
+                final InputStream in = open(dir.resolve(path));
+                if (in != null) {
+                    root = dir;
+                    return in;
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Opens the file. The existence is not checked separately, so a file is located with only one
+     * file-system call.
+     *
+     * @param file the file to open
+     *
+     * @return the opened file or {@code null} when it could not be found
+     *
+     * @throws IOException if an I/O error has occurred
+     */
+    private static InputStream open(final Path file) throws IOException {
+        try {
+            return Files.newInputStream(file);
+        } catch (FileSystemException e) {
+            return null;
+        }
+    }
+}
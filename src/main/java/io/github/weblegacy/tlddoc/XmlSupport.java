@@ -0,0 +1,278 @@
+/*
+ * <license>
+ * Copyright (c) 2003-2004, Sun Microsystems, Inc.
+ * Copyright (c) 2022-2026, Web-Legacy
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of Sun Microsystems, Inc. nor the names of its
+ *       contributors may be used to endorse or promote products derived from
+ *       this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * </license>
+ */
+
+
+package io.github.weblegacy.tlddoc;
+
+import java.io.CharArrayReader;
+import java.io.InputStream;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.FactoryConfigurationError;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.transform.Source;
+import javax.xml.transform.Templates;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.TransformerFactoryConfigurationError;
+import javax.xml.transform.sax.SAXTransformerFactory;
+import javax.xml.transform.sax.TransformerHandler;
+import org.w3c.dom.Document;
+import org.xml.sax.EntityResolver;
+import org.xml.sax.InputSource;
+
+/**
+ * The XML infrastructure shared by all parts of TldDoc. The document builder factory is looked
+ * up and configured only once, as every lookup goes through the system properties and the service
+ * loader. Each thread gets its own {@link DocumentBuilder}, which is reset before it is handed out
+ * again.
+ *
+ * <p>The factories are not thread-safe themselves. The document builder factory and the stream
+ * reader factory are only used while holding a lock. The transformer factory is looked up once
+ * per thread instead, so several threads can compile stylesheets at the same time.</p>
+ *
+ * @author ste-gr
+ */
+public final class XmlSupport {
+
+    /**
+     * Resolves every external entity, e.g. a DTD, to an empty document instead of loading it.
+     */
+    private static final EntityResolver NO_EXTERNAL_ENTITIES = (publicId, systemId)
+            -> new InputSource(new CharArrayReader(new char[0]));
+
+    /**
+     * The document builder of each thread.
+     */
+    private static final ThreadLocal<DocumentBuilder> DOCUMENT_BUILDERS = new ThreadLocal<>();
+
+    /**
+     * The transformer factory of each thread.
+     */
+    private static final ThreadLocal<TransformerFactory> TRANSFORMER_FACTORIES =
+            new ThreadLocal<>();
+
+    /**
+     * Guards {@link #documentBuilderFactory}.
+     */
+    private static final Object DOCUMENT_BUILDER_LOCK = new Object();
+
+    /**
+     * The configured document builder factory, or {@code null} if not looked up yet.
+     */
+    private static DocumentBuilderFactory documentBuilderFactory;
+
+    /**
+     * Guards {@link #inputFactory}.
+     */
+    private static final Object INPUT_FACTORY_LOCK = new Object();
+
+    /**
+     * The configured stream reader factory, or {@code null} if not looked up yet.
+     */
+    private static XMLInputFactory inputFactory;
+
+    /**
+     * Private constructor as this is a utility class.
+     */
+    private XmlSupport() {
+    }
+
+    /**
+     * Returns the document builder of the current thread. It is namespace-aware, does not
+     * validate and does not load external entities. The builder must be used by the current
+     * thread only and must not be kept, as the next call resets it.
+     *
+     * @return the document builder of the current thread
+     *
+     * @throws FactoryConfigurationError    in case of {@linkplain
+     * java.util.ServiceConfigurationError service configuration error} or if the implementation is
+     *                                      not available or cannot be instantiated.
+     * @throws ParserConfigurationException if a DocumentBuilder cannot be created which satisfies
+     *                                      the configuration requested.
+     */
+    public static DocumentBuilder documentBuilder() throws FactoryConfigurationError,
+            ParserConfigurationException {
+
+        DocumentBuilder documentBuilder = DOCUMENT_BUILDERS.get();
+        if (documentBuilder == null) {
+            synchronized (DOCUMENT_BUILDER_LOCK) {
+                if (documentBuilderFactory == null) {
+                    final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+                    factory.setValidating(false);
+                    factory.setNamespaceAware(true);
+                    factory.setExpandEntityReferences(false);
+                    documentBuilderFactory = factory;
+                }
+                documentBuilder = documentBuilderFactory.newDocumentBuilder();
+            }
+            DOCUMENT_BUILDERS.set(documentBuilder);
+        } else {
+            documentBuilder.reset();
+        }
+
+        // The entity resolver does not survive a reset
+        documentBuilder.setEntityResolver(NO_EXTERNAL_ENTITIES);
+        return documentBuilder;
+    }
+
+    /**
+     * Creates a new stream reader for the given XML document, e.g. to pick a few values out of a
+     * TLD without building a DOM tree. It is namespace-aware and neither processes a DTD nor loads
+     * external entities.
+     *
+     * @param in the XML document
+     *
+     * @return the new stream reader
+     *
+     * @throws javax.xml.stream.FactoryConfigurationError if the implementation is not available
+     *                                                   or cannot be instantiated.
+     * @throws XMLStreamException                        if the stream reader cannot be created
+     */
+    public static XMLStreamReader newXMLStreamReader(InputStream in)
+            throws javax.xml.stream.FactoryConfigurationError, XMLStreamException {
+
+        synchronized (INPUT_FACTORY_LOCK) {
+            if (inputFactory == null) {
+                final XMLInputFactory factory = XMLInputFactory.newFactory();
+                factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.TRUE);
+                factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+                factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES,
+                        Boolean.FALSE);
+                inputFactory = factory;
+            }
+            return inputFactory.createXMLStreamReader(in);
+        }
+    }
+
+    /**
+     * Creates a new, empty DOM document.
+     *
+     * @return the new document
+     *
+     * @throws FactoryConfigurationError    in case of {@linkplain
+     * java.util.ServiceConfigurationError service configuration error} or if the implementation is
+     *                                      not available or cannot be instantiated.
+     * @throws ParserConfigurationException if a DocumentBuilder cannot be created which satisfies
+     *                                      the configuration requested.
+     */
+    public static Document newDocument() throws FactoryConfigurationError,
+            ParserConfigurationException {
+
+        return documentBuilder().newDocument();
+    }
+
+    /**
+     * Compiles the given stylesheet. The compiled stylesheet is thread-safe.
+     *
+     * @param stylesheet the stylesheet to compile
+     *
+     * @return the compiled stylesheet
+     *
+     * @throws TransformerFactoryConfigurationError Thrown in case of {@linkplain
+     * java.util.ServiceConfigurationError service configuration error} or if the implementation is
+     *                                              not available or cannot be instantiated.
+     * @throws TransformerConfigurationException    Thrown if there are errors when parsing the
+     *                                              {@code Source} or it is not possible to create a
+     *                                              {@code Templates} instance.
+     */
+    public static Templates newTemplates(Source stylesheet)
+            throws TransformerFactoryConfigurationError, TransformerConfigurationException {
+
+        return transformerFactory().newTemplates(stylesheet);
+    }
+
+    /**
+     * Creates a new transformer copying the source to the result unchanged.
+     *
+     * @return the new transformer
+     *
+     * @throws TransformerFactoryConfigurationError Thrown in case of {@linkplain
+     * java.util.ServiceConfigurationError service configuration error} or if the implementation is
+     *                                              not available or cannot be instantiated.
+     * @throws TransformerConfigurationException    When it is not possible to create a
+     *                                              {@code Transformer} instance.
+     */
+    public static Transformer newTransformer() throws TransformerFactoryConfigurationError,
+            TransformerConfigurationException {
+
+        return transformerFactory().newTransformer();
+    }
+
+    /**
+     * Creates a new handler copying the SAX events it receives unchanged to the result set on it,
+     * e.g. to build a DOM tree or to serialize it. Output properties must be set on its
+     * transformer before the result is set, otherwise they are not used for serializing.
+     *
+     * @return the new handler
+     *
+     * @throws TransformerFactoryConfigurationError Thrown in case of {@linkplain
+     * java.util.ServiceConfigurationError service configuration error} or if the implementation is
+     *                                              not available or cannot be instantiated.
+     * @throws TransformerConfigurationException    When it is not possible to create a
+     *                                              {@code TransformerHandler} instance, e.g. as
+     *                                              the factory does not support SAX.
+     */
+    public static TransformerHandler newTransformerHandler()
+            throws TransformerFactoryConfigurationError, TransformerConfigurationException {
+
+        final TransformerFactory factory = transformerFactory();
+        if (!factory.getFeature(SAXTransformerFactory.FEATURE)) {
+            throw new TransformerConfigurationException(
+                    factory.getClass().getName() + " does not support SAX");
+        }
+        return ((SAXTransformerFactory) factory).newTransformerHandler();
+    }
+
+    /**
+     * Returns the transformer factory of the current thread, looking it up on first use.
+     *
+     * @return the transformer factory of the current thread
+     *
+     * @throws TransformerFactoryConfigurationError Thrown in case of {@linkplain
+     * java.util.ServiceConfigurationError service configuration error} or if the implementation is
+     *                                              not available or cannot be instantiated.
+     */
+    private static TransformerFactory transformerFactory()
+            throws TransformerFactoryConfigurationError {
+
+        TransformerFactory transformerFactory = TRANSFORMER_FACTORIES.get();
+        if (transformerFactory == null) {
+            transformerFactory = TransformerFactory.newInstance();
+            TRANSFORMER_FACTORIES.set(transformerFactory);
+        }
+        return transformerFactory;
+    }
+}
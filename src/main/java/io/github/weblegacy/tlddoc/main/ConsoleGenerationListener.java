@@ -0,0 +1,127 @@
+/*
+ * <license>
+ * Copyright (c) 2003-2004, Sun Microsystems, Inc.
+ * Copyright (c) 2022-2026, Web-Legacy
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of Sun Microsystems, Inc. nor the names of its
+ *       contributors may be used to endorse or promote products derived from
+ *       this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * </license>
+ */
+
+
+package io.github.weblegacy.tlddoc.main;
+
+import java.io.PrintStream;
+
+/**
+ * Writes the progress and the warnings of a documentation generation as text lines. This is the
+ * default listener of {@link TldDocGenerator}.
+ *
+ * @author ste-gr
+ */
+public class ConsoleGenerationListener implements GenerationListener {
+
+    /**
+     * The stream to write to.
+     */
+    private final PrintStream out;
+
+    /**
+     * Creates a new instance of {@link ConsoleGenerationListener} writing to {@code stdout}.
+     */
+    public ConsoleGenerationListener() {
+        this(System.out);
+    }
+
+    /**
+     * Creates a new instance of {@link ConsoleGenerationListener}.
+     *
+     * @param out the stream to write to
+     */
+    public ConsoleGenerationListener(PrintStream out) {
+        this.out = out;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void libraryDuplicate(TagLibrary tagLibrary, TagLibrary original) {
+        out.println("Skipping " + tagLibrary.getPathDescription() + ", identical to "
+                + original.getPathDescription());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void loadingStarted(int count) {
+        out.println("Loading and translating " + count + " Tag Librar"
+                + (count == 1 ? "y" : "ies") + "...");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void tagFileParsed(TagLibrary tagLibrary, String path) {
+        out.println("Parsing tag file: " + path);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void tldConverted(String stylesheet, String result) {
+        out.println(stylesheet + ":\n" + "-".repeat(stylesheet.length() + 1) + '\n' + result);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void libraryGenerating(String shortName, String name) {
+        out.println("Generating docs for " + name + "...");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void generationFinished() {
+        out.println("\nDocumentation generated.");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void warning(String message, Throwable cause) {
+        if (cause == null) {
+            out.println("WARNING: " + message);
+        } else {
+            out.println("WARNING: " + message + "  Reason: " + cause.getMessage());
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * <license>
+ * Copyright (c) 2003-2004, Sun Microsystems, Inc.
+ * Copyright (c) 2022-2026, Web-Legacy
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of Sun Microsystems, Inc. nor the names of its
+ *       contributors may be used to endorse or promote products derived from
+ *       this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * </license>
+ */
+
+
+package io.github.weblegacy.tlddoc.main;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Records the callbacks made while a tag library is loaded, to replay them later on another
+ * listener. Tag libraries are loaded in parallel, but their callbacks are replayed in the order of
+ * the tag libraries, so listeners see the same sequence as with sequential loading.
+ *
+ * @author ste-gr
+ */
+final class DeferredGenerationListener implements GenerationListener {
+
+    /**
+     * The recorded callbacks, in the order they were made.
+     */
+    private final List<Consumer<GenerationListener>> callbacks = new ArrayList<>();
+
+    /**
+     * Records an action to run on the target listener during the replay, in order with the
+     * recorded callbacks.
+     *
+     * @param action the action to run
+     */
+    void defer(Consumer<GenerationListener> action) {
+        callbacks.add(action);
+    }
+
+    /**
+     * Replays all recorded callbacks and actions on the given listener and forgets them.
+     *
+     * @param target the listener to replay the callbacks on
+     */
+    void replay(GenerationListener target) {
+        for (Consumer<GenerationListener> callback : callbacks) {
+            callback.accept(target);
+        }
+        callbacks.clear();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void tagFileParsed(TagLibrary tagLibrary, String path) {
+        defer(l -> l.tagFileParsed(tagLibrary, path));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void tldConverted(String stylesheet, String result) {
+        defer(l -> l.tldConverted(stylesheet, result));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void warning(String message, Throwable cause) {
+        defer(l -> l.warning(message, cause));
+    }
+}
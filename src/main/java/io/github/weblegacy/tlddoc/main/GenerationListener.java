@@ -0,0 +1,147 @@
+/*
+ * <license>
+ * Copyright (c) 2003-2004, Sun Microsystems, Inc.
+ * Copyright (c) 2022-2026, Web-Legacy
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of Sun Microsystems, Inc. nor the names of its
+ *       contributors may be used to endorse or promote products derived from
+ *       this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * </license>
+ */
+
+
+package io.github.weblegacy.tlddoc.main;
+
+/**
+ * Receives the progress and the warnings of a documentation generation. All methods have empty
+ * default implementations, so a listener only implements the callbacks it is interested in.
+ *
+ * <p>The callbacks get the typed data instead of preformatted messages, so nothing is formatted
+ * unless the listener needs it. {@link #NONE} ignores everything, e.g. for silent runs.</p>
+ *
+ * @author ste-gr
+ *
+ * @see TldDocGenerator#setGenerationListener(GenerationListener)
+ * @see ConsoleGenerationListener
+ */
+public interface GenerationListener {
+
+    /**
+     * Listener ignoring all callbacks.
+     */
+    GenerationListener NONE = new GenerationListener() {
+    };
+
+    /**
+     * A tag library was found and added to the generation.
+     *
+     * @param tagLibrary the tag library
+     */
+    default void libraryDiscovered(TagLibrary tagLibrary) {
+    }
+
+    /**
+     * A tag library was found, but not added to the generation, because its URI, TLD and tag
+     * files are identical to those of a tag library found before.
+     *
+     * @param tagLibrary the tag library found
+     * @param original   the identical tag library found before, which is generated instead
+     */
+    default void libraryDuplicate(TagLibrary tagLibrary, TagLibrary original) {
+    }
+
+    /**
+     * Loading of the tag libraries starts.
+     *
+     * @param count the number of tag libraries to load
+     */
+    default void loadingStarted(int count) {
+    }
+
+    /**
+     * A tag library was loaded, upgraded and populated.
+     *
+     * @param tagLibrary the tag library
+     * @param shortName  the short-name of the tag library
+     */
+    default void libraryLoaded(TagLibrary tagLibrary, String shortName) {
+    }
+
+    /**
+     * A tag library was skipped, because it has nothing to document.
+     *
+     * @param tagLibrary the tag library
+     */
+    default void librarySkipped(TagLibrary tagLibrary) {
+    }
+
+    /**
+     * A tag file was parsed.
+     *
+     * @param tagLibrary the tag library of the tag file
+     * @param path       the path of the tag file
+     */
+    default void tagFileParsed(TagLibrary tagLibrary, String path) {
+    }
+
+    /**
+     * A TLD was converted by one stage of the upgrade. Only called in verbose mode.
+     *
+     * @param stylesheet the stylesheet of the stage
+     * @param result     the converted TLD
+     */
+    default void tldConverted(String stylesheet, String result) {
+    }
+
+    /**
+     * The pages of a tag library are generated next.
+     *
+     * @param shortName the short-name of the tag library
+     * @param name      the display-name of the tag library or the short-name if it has none
+     */
+    default void libraryGenerating(String shortName, String name) {
+    }
+
+    /**
+     * A page was written.
+     *
+     * @param path the path of the page, relative to the root of the documentation
+     */
+    default void pageWritten(String path) {
+    }
+
+    /**
+     * The documentation was generated completely.
+     */
+    default void generationFinished() {
+    }
+
+    /**
+     * Something went wrong, but the generation continues, e.g. with incomplete data.
+     *
+     * @param message the description of the problem
+     * @param cause   the cause of the problem or {@code null} if there is none
+     */
+    default void warning(String message, Throwable cause) {
+    }
+}
@@ -0,0 +1,578 @@
+/*
+ * <license>
+ * Copyright (c) 2003-2004, Sun Microsystems, Inc.
+ * Copyright (c) 2022-2026, Web-Legacy
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of Sun Microsystems, Inc. nor the names of its
+ *       contributors may be used to endorse or promote products derived from
+ *       this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * </license>
+ */
+
+
+package io.github.weblegacy.tlddoc.main;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Wall time and counts of each phase of a documentation generation, together with the time
+ * spent on each tag library, tag file, page and stylesheet. Used to find out which input or
+ * stylesheet makes a generation slow.
+ *
+ * <p>The tag libraries are loaded in parallel, so the times of the loading phases, and with them
+ * the total time, are summed over all loading threads and can exceed the wall time.</p>
+ *
+ * <p>The timings of the phases are always recorded. The timings of the items are only recorded
+ * if {@linkplain TldDocGenerator#setStatsLimit(int) requested}, and then only the slowest items
+ * of each kind are kept, so the memory needed does not grow with the number of items.</p>
+ *
+ * <p>The statistics may be read while a generation is running. Reading holds the same lock as
+ * recording, and the timings returned are copies, which do not change afterwards.</p>
+ *
+ * @author ste-gr
+ *
+ * @see TldDocGenerator#getStats()
+ */
+public final class GenerationStats {
+
+    /**
+     * The phases of a generation.
+     */
+    public enum Phase {
+        /**
+         * Finding the tag libraries, in {@code add...}-methods of the generator.
+         */
+        DISCOVERY("discovery"),
+
+        /**
+         * Copying the static files.
+         */
+        COPY_STATIC_FILES("copyStaticFiles"),
+
+        /**
+         * Reading the TLDs (part of {@code createTldSummaryDoc}).
+         */
+        LOAD("load"),
+
+        /**
+         * Upgrading the TLDs to the current version (part of {@code createTldSummaryDoc}).
+         */
+        UPGRADE("upgrade"),
+
+        /**
+         * Populating the TLDs, e.g. with the parsed tag files (part of
+         * {@code createTldSummaryDoc}).
+         */
+        POPULATE("populate"),
+
+        /**
+         * Generating the overview pages.
+         */
+        OVERVIEW("generateOverview"),
+
+        /**
+         * Generating the pages of each tag library.
+         */
+        TLD_DETAIL("generateTldDetail"),
+
+        /**
+         * Writing the fragment of each tag library, instead of generating the pages.
+         */
+        FRAGMENTS("writeFragments");
+
+        /**
+         * The name of the phase, as used in reports.
+         */
+        private final String label;
+
+        /**
+         * Creates a new phase.
+         *
+         * @param label the name of the phase, as used in reports
+         */
+        Phase(String label) {
+            this.label = label;
+        }
+
+        /**
+         * Returns the name of the phase, as used in reports.
+         *
+         * @return the name of the phase
+         */
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    /**
+     * The kinds of items, the time is recorded for individually.
+     */
+    public enum Item {
+        /**
+         * A tag library, from loading to populating. Identified by its path description.
+         */
+        LIBRARY("libraries", false),
+
+        /**
+         * A parsed tag file. Identified by its path.
+         */
+        TAG_FILE("tagFiles", false),
+
+        /**
+         * A generated page. Identified by its path in the output.
+         */
+        PAGE("pages", false),
+
+        /**
+         * The pages generated with one stylesheet. Identified by the stylesheet.
+         */
+        STYLESHEET("stylesheets", true);
+
+        /**
+         * The name of the kind, as used in reports.
+         */
+        private final String label;
+
+        /**
+         * {@code true} if the times of the items of the same name are summed up, which is only
+         * done for the few items of a kind known in advance.
+         */
+        private final boolean summed;
+
+        /**
+         * Creates a new kind of items.
+         *
+         * @param label  the name of the kind, as used in reports
+         * @param summed {@code true} if the times of the items of the same name are summed up
+         */
+        Item(String label, boolean summed) {
+            this.label = label;
+            this.summed = summed;
+        }
+
+        /**
+         * Returns the name of the kind, as used in reports.
+         *
+         * @return the name of the kind
+         */
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    /**
+     * The time spent on one item, or on one phase.
+     */
+    public static final class Timing {
+
+        /**
+         * The name of the item.
+         */
+        private final String name;
+
+        /**
+         * The time in nanoseconds.
+         */
+        private long nanos;
+
+        /**
+         * The number of times the item was processed.
+         */
+        private int count;
+
+        /**
+         * Creates a new instance of {@link Timing}.
+         *
+         * @param name the name of the item
+         */
+        Timing(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Creates a copy of a timing, which does not change with the original.
+         *
+         * @param timing the timing to copy
+         */
+        private Timing(Timing timing) {
+            this.name = timing.name;
+            this.nanos = timing.nanos;
+            this.count = timing.count;
+        }
+
+        /**
+         * Adds the time for one more processing of the item.
+         *
+         * @param time  the time in nanoseconds
+         * @param times the number of times the item was processed
+         */
+        void add(long time, int times) {
+            nanos += time;
+            count += times;
+        }
+
+        /**
+         * Returns the name of the item.
+         *
+         * @return the name of the item
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Returns the time spent on the item.
+         *
+         * @return the time in nanoseconds
+         */
+        public long getNanos() {
+            return nanos;
+        }
+
+        /**
+         * Returns how often the item was processed, e.g. the number of pages generated with a
+         * stylesheet.
+         *
+         * @return the number of times
+         */
+        public int getCount() {
+            return count;
+        }
+    }
+
+    /**
+     * Orders the timings from the fastest to the slowest.
+     */
+    private static final Comparator<Timing> FASTEST_FIRST
+            = Comparator.comparingLong(Timing::getNanos);
+
+    /**
+     * Orders the timings from the slowest to the fastest.
+     */
+    private static final Comparator<Timing> SLOWEST_FIRST = FASTEST_FIRST.reversed();
+
+    /**
+     * The timings of the phases.
+     */
+    private final Map<Phase, Timing> phases = new EnumMap<>(Phase.class);
+
+    /**
+     * The slowest items of each kind, with the fastest of them at the head.
+     */
+    private final Map<Item, PriorityQueue<Timing>> slowest = new EnumMap<>(Item.class);
+
+    /**
+     * The timings of the items of the kinds summed up by name.
+     */
+    private final Map<Item, Map<String, Timing>> summed = new EnumMap<>(Item.class);
+
+    /**
+     * The number of items of each kind processed.
+     */
+    private final Map<Item, Integer> counts = new EnumMap<>(Item.class);
+
+    /**
+     * The maximum number of items of each kind to keep the timings of; {@code 0} if the timings
+     * of the items are not recorded.
+     */
+    private int limit;
+
+    /**
+     * Creates a new empty instance of {@link GenerationStats}.
+     */
+    GenerationStats() {
+        for (Phase phase : Phase.values()) {
+            phases.put(phase, new Timing(phase.getLabel()));
+        }
+        for (Item item : Item.values()) {
+            slowest.put(item, new PriorityQueue<>(FASTEST_FIRST));
+            summed.put(item, new HashMap<>());
+            counts.put(item, 0);
+        }
+    }
+
+    /**
+     * Sets the maximum number of items of each kind to keep the timings of.
+     *
+     * @param limit the maximum number of items; {@code 0} to not record the timings of the items
+     */
+    synchronized void setLimit(int limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * Resets all timings, except the timings of the discovery, which happens before the
+     * generation.
+     */
+    synchronized void resetGeneration() {
+        for (Phase phase : Phase.values()) {
+            if (phase != Phase.DISCOVERY) {
+                phases.put(phase, new Timing(phase.getLabel()));
+            }
+        }
+        for (Item item : Item.values()) {
+            slowest.get(item).clear();
+            summed.get(item).clear();
+            counts.put(item, 0);
+        }
+    }
+
+    /**
+     * Records the time spent in a phase.
+     *
+     * @param phase the phase
+     * @param start the start time of the phase, from {@link System#nanoTime()}
+     * @param count the number of items processed in the phase
+     *
+     * @return the current time, to be used as start time of the next phase
+     */
+    synchronized long record(Phase phase, long start, int count) {
+        final long now = System.nanoTime();
+        phases.get(phase).add(now - start, count);
+        return now;
+    }
+
+    /**
+     * Records the time spent on an item. The item is counted in any case, but its timing is only
+     * kept if it is among the slowest items of its kind.
+     *
+     * @param item  the kind of the item
+     * @param name  the name of the item
+     * @param start the start time of the processing, from {@link System#nanoTime()}
+     *
+     * @return the current time
+     */
+    synchronized long record(Item item, String name, long start) {
+        final long now = System.nanoTime();
+        counts.merge(item, 1, Integer::sum);
+        if (limit <= 0) {
+            return now;
+        }
+
+        if (item.summed) {
+            summed.get(item).computeIfAbsent(name, Timing::new).add(now - start, 1);
+            return now;
+        }
+
+        final PriorityQueue<Timing> timings = slowest.get(item);
+        if (timings.size() >= limit) {
+            if (timings.peek().getNanos() >= now - start) {
+                return now;
+            }
+            timings.poll();
+        }
+        final Timing timing = new Timing(name);
+        timing.add(now - start, 1);
+        timings.add(timing);
+        return now;
+    }
+
+    /**
+     * Returns the number of items of the given kind processed, whether their timings are kept or
+     * not.
+     *
+     * @param item the kind of the items
+     *
+     * @return the number of items
+     */
+    public synchronized int getCount(Item item) {
+        return counts.get(item);
+    }
+
+    /**
+     * Returns the timing of a phase.
+     *
+     * @param phase the phase
+     *
+     * @return a copy of the timing, with the number of items processed in the phase as count
+     */
+    public synchronized Timing getPhase(Phase phase) {
+        return new Timing(phases.get(phase));
+    }
+
+    /**
+     * Returns the total time of all phases.
+     *
+     * @return the time in nanoseconds
+     */
+    public synchronized long getTotalNanos() {
+        long total = 0;
+        for (Timing timing : phases.values()) {
+            total += timing.getNanos();
+        }
+        return total;
+    }
+
+    /**
+     * Returns the slowest items of the given kind. Only the items kept are returned, so there are
+     * none if the timings of the items were not recorded.
+     *
+     * @param item  the kind of the items
+     * @param limit the maximum number of items to return
+     *
+     * @return copies of the timings, from the slowest to the fastest
+     */
+    public synchronized List<Timing> getSlowest(Item item, int limit) {
+        final List<Timing> timings = new ArrayList<>(item.summed ? summed.get(item).values()
+                : slowest.get(item));
+        timings.sort(SLOWEST_FIRST);
+        final int size = Math.min(timings.size(), limit);
+        final List<Timing> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(new Timing(timings.get(i)));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Formats the statistics as a human-readable report.
+     *
+     * @param limit the maximum number of slowest items to list for each kind
+     *
+     * @return the report
+     */
+    public synchronized String format(int limit) {
+        final StringBuilder sb = new StringBuilder(2048);
+        sb.append("Generation statistics:\n");
+        for (Timing timing : phases.values()) {
+            appendLine(sb, "  ", timing);
+        }
+        sb.append(String.format(Locale.ROOT, "  %10.1f ms %8s  %s\n", getTotalNanos() / 1e6, "",
+                "total"));
+
+        for (Item item : Item.values()) {
+            final List<Timing> slowest = getSlowest(item, limit);
+            if (!slowest.isEmpty()) {
+                sb.append("Slowest ").append(item.getLabel()).append(":\n");
+                for (Timing timing : slowest) {
+                    appendLine(sb, "  ", timing);
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Appends one line of the human-readable report.
+     *
+     * @param sb     the report
+     * @param indent the indent of the line
+     * @param timing the timing to append
+     */
+    private static void appendLine(StringBuilder sb, String indent, Timing timing) {
+        sb.append(String.format(Locale.ROOT, "%s%10.1f ms %8d  %s\n", indent,
+                timing.getNanos() / 1e6, timing.getCount(), timing.getName()));
+    }
+
+    /**
+     * Formats all statistics as JSON, with all items kept. Times are given in nanoseconds.
+     *
+     * @return the JSON document
+     */
+    public synchronized String toJson() {
+        final StringBuilder sb = new StringBuilder(4096);
+        sb.append("{\n  \"totalNanos\": ").append(getTotalNanos()).append(",\n");
+        sb.append("  \"phases\": {");
+        String separator = "\n";
+        for (Timing timing : phases.values()) {
+            sb.append(separator).append("    ");
+            appendJsonString(sb, timing.getName());
+            sb.append(": {\"nanos\": ").append(timing.getNanos())
+                    .append(", \"count\": ").append(timing.getCount()).append('}');
+            separator = ",\n";
+        }
+        sb.append("\n  }");
+
+        for (Item item : Item.values()) {
+            sb.append(",\n  ");
+            appendJsonString(sb, item.getLabel());
+            sb.append(": [");
+            separator = "\n";
+            for (Timing timing : getSlowest(item, Integer.MAX_VALUE)) {
+                sb.append(separator).append("    {\"name\": ");
+                appendJsonString(sb, timing.getName());
+                sb.append(", \"nanos\": ").append(timing.getNanos())
+                        .append(", \"count\": ").append(timing.getCount()).append('}');
+                separator = ",\n";
+            }
+            sb.append(separator.length() == 1 ? "]" : "\n  ]");
+        }
+        sb.append("\n}\n");
+        return sb.toString();
+    }
+
+    /**
+     * Appends a string as JSON string literal. The line and paragraph separators are escaped as
+     * well, so the literal is also valid JavaScript.
+     *
+     * @param sb    the JSON document
+     * @param value the string to append
+     */
+    static void appendJsonString(StringBuilder sb, String value) {
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20 || c == '\u2028' || c == '\u2029') {
+                        sb.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                    break;
+            }
+        }
+        sb.append('"');
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return format(10);
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * <license>
+ * Copyright (c) 2003-2004, Sun Microsystems, Inc.
+ * Copyright (c) 2022-2026, Web-Legacy
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of Sun Microsystems, Inc. nor the names of its
+ *       contributors may be used to endorse or promote products derived from
+ *       this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * </license>
+ */
+
+
+package io.github.weblegacy.tlddoc.main;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Size-bounded LRU cache of rendered pages. The size of the cache is the sum of the sizes of all
+ * cached pages; if it exceeds the maximum, the least recently used pages are evicted.
+ *
+ * @author ste-gr
+ */
+final class PageCache {
+
+    /**
+     * The maximum size of all cached pages in bytes.
+     */
+    private final long maxSize;
+
+    /**
+     * The cached pages by path, in access order.
+     */
+    private final LinkedHashMap<String, byte[]> pages = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * The current size of all cached pages in bytes.
+     */
+    private long size;
+
+    /**
+     * Creates a new instance of {@link PageCache}.
+     *
+     * @param maxSize the maximum size of all cached pages in bytes
+     */
+    PageCache(final long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the cached page and marks it as most recently used.
+     *
+     * @param path the path of the page
+     *
+     * @return the cached page or {@code null} if the page is not cached
+     */
+    synchronized byte[] get(final String path) {
+        return pages.get(path);
+    }
+
+    /**
+     * Adds the page to the cache and evicts the least recently used pages, if the cache gets too
+     * big. Pages which are bigger than the whole cache are not cached at all.
+     *
+     * @param path the path of the page
+     * @param page the rendered page
+     */
+    synchronized void put(final String path, final byte[] page) {
+        if (page.length > maxSize) {
+            return;
+        }
+
+        final byte[] old = pages.put(path, page);
+        size += page.length - (old == null ? 0 : old.length);
+
+        final Iterator<Map.Entry<String, byte[]>> iter = pages.entrySet().iterator();
+        while (size > maxSize && iter.hasNext()) {
+            size -= iter.next().getValue().length;
+            iter.remove();
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * <license>
+ * Copyright (c) 2003-2004, Sun Microsystems, Inc.
+ * Copyright (c) 2022-2026, Web-Legacy
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of Sun Microsystems, Inc. nor the names of its
+ *       contributors may be used to endorse or promote products derived from
+ *       this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * </license>
+ */
+
+
+package io.github.weblegacy.tlddoc.main;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import org.w3c.dom.Element;
+
+/**
+ * Search index of the documentation, loaded by the search page. It lists the short-name of each
+ * tag library and the name of each tag, tag file, function and attribute, together with the first
+ * sentence of its description. The index is built from the {@link TaglibIndex} of each tag
+ * library while its pages are rendered, so the pages are never parsed again.
+ *
+ * <p>The index is a JSON object, wrapped into a call of {@code tlddocSearchIndex(...)}, so the
+ * search page can load it with a script element even if the documentation is opened from the
+ * file system, where browsers refuse to fetch files:</p>
+ * <pre>
+ * tlddocSearchIndex({
+ *   "libraries": [[short-name, display-name, summary], ...],
+ *   "items": [[kind, library, name, summary(, tag)], ...]
+ * });
+ * </pre>
+ * <p>The kind is {@code t} for a tag or tag file, {@code f} for a function and {@code a} for an
+ * attribute, which also has the name of its tag. The library is the position in the list of
+ * libraries.</p>
+ *
+ * @author ste-gr
+ */
+final class SearchIndex {
+
+    /**
+     * The path of the search index, relative to the root of the documentation.
+     */
+    static final String PATH = "search-index.js";
+
+    /**
+     * The maximum length of a summary, longer ones are cut.
+     */
+    private static final int MAX_SUMMARY = 160;
+
+    /**
+     * The entries of the tag libraries, separated by commas.
+     */
+    private final StringBuilder libraries = new StringBuilder();
+
+    /**
+     * The entries of the tags, tag files, functions and attributes, separated by commas.
+     */
+    private final StringBuilder items = new StringBuilder();
+
+    /**
+     * The number of tag libraries added.
+     */
+    private int count;
+
+    /**
+     * Adds the tag library with all its tags, tag files, functions and attributes.
+     *
+     * @param index the index of the tag library
+     */
+    void add(final TaglibIndex index) {
+        final Element taglib = index.getTaglib();
+        final String displayName = TaglibIndex.childValue(taglib, "display-name");
+        final int library = count++;
+        entry(libraries, index.getShortName(), displayName == null ? "" : displayName,
+                summary(taglib));
+
+        addTags(library, index.getTagsByName());
+        addTags(library, index.getTagFilesByName());
+        for (Map.Entry<String, Element> function : index.getFunctionsByName().entrySet()) {
+            entry(items, "f", library, function.getKey(), summary(function.getValue()));
+        }
+    }
+
+    /**
+     * Adds the tags or tag files with their attributes.
+     *
+     * @param library the position of the tag library
+     * @param tags    the tags or tag files by name
+     */
+    private void addTags(final int library, final Map<String, Element> tags) {
+        for (Map.Entry<String, Element> tag : tags.entrySet()) {
+            entry(items, "t", library, tag.getKey(), summary(tag.getValue()));
+            for (Element attribute : TaglibIndex.children(tag.getValue(), "attribute")) {
+                final String name = TaglibIndex.childValue(attribute, "name");
+                if (name != null) {
+                    entry(items, "a", library, name, summary(attribute), tag.getKey());
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the search index as script.
+     *
+     * @return the search index, encoded in UTF-8
+     */
+    byte[] toScript() {
+        return ("tlddocSearchIndex({\"libraries\":[" + libraries + "],\"items\":[" + items
+                + "]});\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Appends an entry, a JSON array, to the given list of entries.
+     *
+     * @param list   the list of entries
+     * @param values the values of the entry, numbers or strings
+     */
+    private static void entry(final StringBuilder list, final Object... values) {
+        if (list.length() > 0) {
+            list.append(',');
+        }
+        list.append('[');
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                list.append(',');
+            }
+            if (values[i] instanceof Integer) {
+                list.append(values[i]);
+            } else {
+                GenerationStats.appendJsonString(list, (String) values[i]);
+            }
+        }
+        list.append(']');
+    }
+
+    /**
+     * Returns the first sentence of the description of the given element, without any markup.
+     * Like in Javadoc, the first sentence ends with the first period followed by white space.
+     *
+     * @param element the element, e.g. a tag
+     *
+     * @return the first sentence or an empty string if the element has no description
+     */
+    private static String summary(final Element element) {
+        final Element description = TaglibIndex.child(element, "description");
+        if (description == null) {
+            return "";
+        }
+
+        final String text = description.getTextContent().replaceAll("<[^>]*>", " ")
+                .replaceAll("\\s+", " ").trim();
+        final int end = text.indexOf(". ");
+        String summary = end == -1 ? text : text.substring(0, end + 1);
+        if (summary.length() > MAX_SUMMARY) {
+            summary = summary.substring(0, MAX_SUMMARY - 3).trim() + "...";
+        }
+        return summary;
+    }
+}
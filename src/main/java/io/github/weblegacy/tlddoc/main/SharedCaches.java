@@ -0,0 +1,115 @@
+/*
+ * <license>
+ * Copyright (c) 2003-2004, Sun Microsystems, Inc.
+ * Copyright (c) 2022-2026, Web-Legacy
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of Sun Microsystems, Inc. nor the names of its
+ *       contributors may be used to endorse or promote products derived from
+ *       this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * </license>
+ */
+
+
+package io.github.weblegacy.tlddoc.main;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import javax.xml.transform.Templates;
+
+/**
+ * The caches of a {@link TldDocGenerator}, which can be shared by several generators, e.g. by all
+ * entries of a batch. Each cache is thread-safe.
+ *
+ * @author ste-gr
+ */
+final class SharedCaches {
+
+    /**
+     * The compiled or compiling stylesheets, by XSLT directory and resource name.
+     */
+    private final Map<String, Future<Templates>> templates = new HashMap<>();
+
+    /**
+     * The names of the TLD entries of each JAR, by path, size and modification time.
+     */
+    private final Map<String, List<String>> jarTlds = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the compiled or compiling stylesheets, by XSLT directory and resource name. The map
+     * is not thread-safe itself, it must be synchronized on.
+     *
+     * @return the compiled or compiling stylesheets
+     */
+    Map<String, Future<Templates>> templates() {
+        return templates;
+    }
+
+    /**
+     * Returns the names of the TLD entries of the given JAR, if it was scanned before and has not
+     * changed since.
+     *
+     * @param jar the JAR
+     *
+     * @return the names of the TLD entries or {@code null} if not known
+     *
+     * @throws IOException if an I/O error has occurred
+     */
+    List<String> getJarTlds(Path jar) throws IOException {
+        return jarTlds.get(jarKey(jar));
+    }
+
+    /**
+     * Remembers the names of the TLD entries of the given JAR.
+     *
+     * @param jar     the JAR
+     * @param entries the names of the TLD entries
+     *
+     * @throws IOException if an I/O error has occurred
+     */
+    void putJarTlds(Path jar, List<String> entries) throws IOException {
+        jarTlds.put(jarKey(jar), List.copyOf(entries));
+    }
+
+    /**
+     * Returns the key of the given JAR, which changes whenever the JAR is replaced.
+     *
+     * @param jar the JAR
+     *
+     * @return the key of the JAR
+     *
+     * @throws IOException if an I/O error has occurred
+     */
+    private static String jarKey(Path jar) throws IOException {
+        final BasicFileAttributes attributes = Files.readAttributes(jar,
+                BasicFileAttributes.class);
+        return jar.toAbsolutePath().normalize() + "|" + attributes.size() + "|"
+                + attributes.lastModifiedTime().toMillis();
+    }
+}
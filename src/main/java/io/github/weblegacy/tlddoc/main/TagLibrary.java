@@ -87,4 +87,41 @@ public interface TagLibrary extends Closeable {
      * @throws IOException if an I/O error has occurred
      */
     InputStream getResource(String path) throws IOException;
+
+    /**
+     * Returns the size of the tag library descriptor, if it is known without reading it.
+     *
+     * @return the size in bytes or {@code -1} if not known, e.g. for implicit tag libraries
+     *
+     * @throws IOException if an I/O error has occurred
+     */
+    default long getTldSize() throws IOException {
+        return -1;
+    }
+
+    /**
+     * Returns the content of the tag library descriptor, if it is read from a file, e.g. to find
+     * identical tag libraries or to look it up in the cache of upgraded TLDs. This may be called
+     * when the tag library is discovered; the tag library is closed afterwards and must be opened
+     * again on demand.
+     *
+     * @return the content of the TLD or {@code null} if the TLD is implicitly generated
+     *
+     * @throws IOException if an I/O error has occurred
+     */
+    default byte[] getTldBytes() throws IOException {
+        return null;
+    }
+
+    /**
+     * Returns {@code true} if the tag library descriptor is already upgraded to the current TLD
+     * version and populated, e.g. a fragment written by
+     * {@link TldDocGenerator#generateFragments(java.nio.file.Path)}. Such a tag library is neither
+     * upgraded nor populated again.
+     *
+     * @return {@code true} if the tag library descriptor is already normalized
+     */
+    default boolean isNormalized() {
+        return false;
+    }
 }
@@ -0,0 +1,326 @@
+/*
+ * <license>
+ * Copyright (c) 2003-2004, Sun Microsystems, Inc.
+ * Copyright (c) 2022-2026, Web-Legacy
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of Sun Microsystems, Inc. nor the names of its
+ *       contributors may be used to endorse or promote products derived from
+ *       this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * </license>
+ */
+
+
+package io.github.weblegacy.tlddoc.main;
+
+import io.github.weblegacy.tlddoc.XmlSupport;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import javax.xml.parsers.FactoryConfigurationError;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactoryConfigurationError;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.xml.sax.SAXException;
+
+/**
+ * The content of a tag library, read once when the tag library is discovered. It holds the TLD,
+ * if it is read from a file, until the tag library is loaded, so the TLD does not have to be read
+ * again. Tag libraries are identified by their URI and the SHA-256 hash of their TLD and tag
+ * files; tag libraries with the same key are identical, e.g. the same JAR or tag directory in
+ * several web applications.
+ *
+ * <p>Discovery stays cheap: the TLD is read and hashed, but the tag files are only hashed when
+ * another tag library with the same URI and TLD is found.</p>
+ *
+ * @author ste-gr
+ */
+final class TagLibraryContent {
+
+    /**
+     * The tag library.
+     */
+    private final TagLibrary tagLibrary;
+
+    /**
+     * The content of the TLD or {@code null} if the TLD is implicitly generated or was already
+     * {@linkplain #takeTld() taken}.
+     */
+    private byte[] tld;
+
+    /**
+     * The SHA-256 hash of the TLD or {@code null} if the TLD is implicitly generated.
+     */
+    private final byte[] tldHash;
+
+    /**
+     * The key of the tag library by its URI and TLD, without the tag files, or {@code null} if
+     * the TLD is not well-formed.
+     */
+    private final String tldKey;
+
+    /**
+     * The paths of the tag files, sorted.
+     */
+    private final List<String> tagFiles;
+
+    /**
+     * The key of the tag library including the tag files or {@code null} if not computed yet.
+     */
+    private String key;
+
+    /**
+     * Creates a new instance of {@link TagLibraryContent}.
+     *
+     * @param tagLibrary the tag library
+     * @param tld        the content of the TLD or {@code null} if the TLD is implicitly generated
+     * @param tldHash    the SHA-256 hash of the TLD or {@code null} if the TLD is implicitly
+     *                   generated
+     * @param tldKey     the key of the tag library by its URI and TLD or {@code null} if the TLD
+     *                   is not well-formed
+     * @param tagFiles   the paths of the tag files, sorted
+     */
+    private TagLibraryContent(final TagLibrary tagLibrary, final byte[] tld,
+            final byte[] tldHash, final String tldKey, final List<String> tagFiles) {
+
+        this.tagLibrary = tagLibrary;
+        this.tld = tld;
+        this.tldHash = tldHash;
+        this.tldKey = tldKey;
+        this.tagFiles = tagFiles;
+    }
+
+    /**
+     * Reads the TLD of the given tag library and the paths of its tag files. The tag library is
+     * left open.
+     *
+     * @param tagLibrary the tag library to read
+     *
+     * @return the content of the tag library
+     *
+     * @throws IOException                          if an I/O error has occurred
+     * @throws SAXException                         If any parse errors occur.
+     * @throws FactoryConfigurationError            in case of {@linkplain
+     * java.util.ServiceConfigurationError service configuration error} or if the implementation is
+     *                                              not available or cannot be instantiated.
+     * @throws ParserConfigurationException         if a DocumentBuilder cannot be created which
+     *                                              satisfies the configuration requested.
+     * @throws TransformerFactoryConfigurationError Thrown in case of {@linkplain
+     * java.util.ServiceConfigurationError service configuration error} or if the implementation is
+     *                                              not available or cannot be instantiated.
+     * @throws TransformerException                 If an unrecoverable error occurs during the
+     *                                              course of the transformation.
+     */
+    static TagLibraryContent read(final TagLibrary tagLibrary) throws IOException, SAXException,
+            FactoryConfigurationError, ParserConfigurationException,
+            TransformerFactoryConfigurationError, TransformerException {
+
+        final byte[] tld = tagLibrary.getTldBytes();
+        final byte[] tldHash = tld == null ? null : TldCache.sha256().digest(tld);
+        final List<String> tagFiles = new ArrayList<>();
+        final String uri;
+        if (tld == null) {
+            uri = scanImplicitTld(tagLibrary.getTldDocument(XmlSupport.documentBuilder()),
+                    tagFiles);
+        } else {
+            try {
+                uri = scanTld(tld, tagFiles);
+            } catch (XMLStreamException e) {
+                // Reported when the tag library is loaded
+                return new TagLibraryContent(tagLibrary, tld, tldHash, null, List.of());
+            }
+        }
+
+        // The order of an implicit tag library depends on the file system
+        Collections.sort(tagFiles);
+
+        // An implicit TLD is made of the paths of its tag files only
+        final MessageDigest digest = TldCache.sha256();
+        update(digest, tldHash);
+        for (String path : tagFiles) {
+            update(digest, path.getBytes(StandardCharsets.UTF_8));
+        }
+        return new TagLibraryContent(tagLibrary, tld, tldHash, (uri == null ? "" : uri.trim())
+                + ' ' + Base64.getEncoder().encodeToString(digest.digest()), tagFiles);
+    }
+
+    /**
+     * Returns the tag library.
+     *
+     * @return the tag library
+     */
+    TagLibrary getTagLibrary() {
+        return tagLibrary;
+    }
+
+    /**
+     * Returns the content of the TLD and releases it, so it is not kept after the tag library is
+     * loaded.
+     *
+     * @return the content of the TLD or {@code null} if the TLD is implicitly generated or was
+     *         already taken
+     */
+    byte[] takeTld() {
+        final byte[] result = tld;
+        tld = null;
+        return result;
+    }
+
+    /**
+     * Returns the SHA-256 hash of the TLD, e.g. to look it up in the cache of upgraded TLDs.
+     *
+     * @return the hash of the TLD or {@code null} if the TLD is implicitly generated
+     */
+    byte[] getTldHash() {
+        return tldHash;
+    }
+
+    /**
+     * Returns the key identifying the tag library by its URI and TLD, without its tag files. Only
+     * tag libraries with the same key can be identical.
+     *
+     * @return the key or {@code null} if the TLD is not well-formed
+     */
+    String getTldKey() {
+        return tldKey;
+    }
+
+    /**
+     * Returns the key identifying the tag library by its URI and the hash of its TLD and tag
+     * files. The tag files are read and hashed on the first call; the tag library is closed
+     * afterwards.
+     *
+     * @return the key of the tag library
+     *
+     * @throws IOException if an I/O error has occurred
+     */
+    String getKey() throws IOException {
+        if (key == null) {
+            final MessageDigest digest = TldCache.sha256();
+            try (TagLibrary library = tagLibrary) {
+                for (String path : tagFiles) {
+                    update(digest, path.getBytes(StandardCharsets.UTF_8));
+                    try (InputStream in = library.getResource(path)) {
+                        update(digest, in == null ? null : in.readAllBytes());
+                    }
+                }
+            }
+            key = tldKey + ' ' + Base64.getEncoder().encodeToString(digest.digest());
+        }
+        return key;
+    }
+
+    /**
+     * Returns the URI of the given TLD and collects the paths of its tag files, without building
+     * a DOM tree.
+     *
+     * @param tld      the content of the TLD
+     * @param tagFiles the list to add the paths of the tag files to
+     *
+     * @return the URI of the TLD or {@code null} if it has none
+     *
+     * @throws XMLStreamException if the TLD is not well-formed
+     */
+    private static String scanTld(final byte[] tld, final List<String> tagFiles)
+            throws XMLStreamException {
+
+        final XMLStreamReader reader = XmlSupport.newXMLStreamReader(
+                new ByteArrayInputStream(tld));
+        try {
+            String uri = null;
+            boolean inTagFile = false;
+            int depth = 0;
+            while (reader.hasNext()) {
+                final int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    final String name = reader.getLocalName();
+                    if (depth == 1 && "uri".equals(name)) {
+                        // Leaves the reader at the end of the element
+                        uri = reader.getElementText();
+                    } else if (depth == 2 && inTagFile && "path".equals(name)) {
+                        tagFiles.add(reader.getElementText().trim());
+                    } else {
+                        inTagFile |= depth == 1 && "tag-file".equals(name);
+                        depth++;
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    depth--;
+                    inTagFile &= depth != 1;
+                }
+            }
+            return uri;
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Returns the URI of the given implicitly generated TLD and collects the paths of its tag
+     * files.
+     *
+     * @param doc      the implicitly generated TLD
+     * @param tagFiles the list to add the paths of the tag files to
+     *
+     * @return the URI of the TLD or {@code null} if it has none
+     */
+    private static String scanImplicitTld(final Document doc, final List<String> tagFiles) {
+        final Element taglib = doc.getDocumentElement();
+        if (taglib == null) {
+            return null;
+        }
+
+        for (Element tagFile : TaglibIndex.children(taglib, "tag-file")) {
+            final String path = TaglibIndex.childValue(tagFile, "path");
+            if (path != null) {
+                tagFiles.add(path.trim());
+            }
+        }
+        return TaglibIndex.childValue(taglib, "uri");
+    }
+
+    /**
+     * Adds the length and the content of the given data to the digest, so consecutive values
+     * cannot be confused.
+     *
+     * @param digest the digest to update
+     * @param data   the data to add or {@code null} if missing
+     */
+    private static void update(final MessageDigest digest, final byte[] data) {
+        digest.update(ByteBuffer.allocate(Integer.BYTES)
+                .putInt(data == null ? -1 : data.length).array());
+        if (data != null) {
+            digest.update(data);
+        }
+    }
+}
@@ -0,0 +1,432 @@
+/*
+ * <license>
+ * Copyright (c) 2003-2004, Sun Microsystems, Inc.
+ * Copyright (c) 2022-2026, Web-Legacy
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of Sun Microsystems, Inc. nor the names of its
+ *       contributors may be used to endorse or promote products derived from
+ *       this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * </license>
+ */
+
+
+package io.github.weblegacy.tlddoc.main;
+
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * Index of the components of one upgraded tag library. The index is built once after the
+ * upgrade and used in all populate and render phases instead of searching the DOM with
+ * {@code getElementsByTagNameNS}, which always scans all descendants.
+ *
+ * <p>The index is a snapshot of the direct children of the {@code <taglib>} element. Adding
+ * children to the indexed components (e.g. while populating tag files) does not invalidate
+ * it.</p>
+ *
+ * @author ste-gr
+ */
+final class TaglibIndex {
+
+    /**
+     * The indexed {@code <taglib>} element.
+     */
+    private final Element taglib;
+
+    /**
+     * All {@code <tag>} elements in document order.
+     */
+    private final List<Element> tags = new ArrayList<>();
+
+    /**
+     * All {@code <tag-file>} elements in document order.
+     */
+    private final List<Element> tagFiles = new ArrayList<>();
+
+    /**
+     * All {@code <function>} elements in document order.
+     */
+    private final List<Element> functions = new ArrayList<>();
+
+    /**
+     * All {@code <validator>} elements in document order.
+     */
+    private final List<Element> validators = new ArrayList<>();
+
+    /**
+     * The {@code <tag>} elements by name, created on first use.
+     */
+    private Map<String, Element> tagsByName;
+
+    /**
+     * The {@code <tag-file>} elements by name, created on first use.
+     */
+    private Map<String, Element> tagFilesByName;
+
+    /**
+     * The {@code <function>} elements by name, created on first use.
+     */
+    private Map<String, Element> functionsByName;
+
+    /**
+     * The summary document holding only this tag library, to render its pages from, or
+     * {@code null} if not created yet. Dropped by the garbage collector when memory runs low.
+     */
+    private SoftReference<Document> source;
+
+    /**
+     * The locations the tag library was found at.
+     */
+    private List<String> locations = List.of();
+
+    /**
+     * Creates the index for the given {@code <taglib>} element.
+     *
+     * @param taglib the {@code <taglib>} element to index
+     */
+    TaglibIndex(final Element taglib) {
+        this.taglib = taglib;
+
+        for (Node node = taglib.getFirstChild(); node != null; node = node.getNextSibling()) {
+            if (node.getNodeType() != Node.ELEMENT_NODE) {
+                continue;
+            }
+
+            final Element element = (Element) node;
+            switch (localName(element)) {
+                case "tag":
+                    tags.add(element);
+                    break;
+                case "tag-file":
+                    tagFiles.add(element);
+                    break;
+                case "function":
+                    functions.add(element);
+                    break;
+                case "validator":
+                    validators.add(element);
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Returns the indexed {@code <taglib>} element.
+     *
+     * @return the indexed {@code <taglib>} element
+     */
+    Element getTaglib() {
+        return taglib;
+    }
+
+    /**
+     * Returns the short name of the indexed tag library.
+     *
+     * @return the short name or {@code null} if the tag library has none
+     */
+    String getShortName() {
+        return childValue(taglib, "short-name");
+    }
+
+    /**
+     * Returns {@code true} if this tag library has no tags, no tag-files, no validators and no
+     * functions.
+     *
+     * @return {@code true} if this tag library has nothing to document
+     */
+    boolean isEmpty() {
+        return tags.isEmpty() && tagFiles.isEmpty() && functions.isEmpty()
+                && validators.isEmpty();
+    }
+
+    /**
+     * Returns all {@code <tag>} elements in document order.
+     *
+     * @return all {@code <tag>} elements
+     */
+    List<Element> getTags() {
+        return Collections.unmodifiableList(tags);
+    }
+
+    /**
+     * Returns all {@code <tag-file>} elements in document order.
+     *
+     * @return all {@code <tag-file>} elements
+     */
+    List<Element> getTagFiles() {
+        return Collections.unmodifiableList(tagFiles);
+    }
+
+    /**
+     * Returns all {@code <function>} elements in document order.
+     *
+     * @return all {@code <function>} elements
+     */
+    List<Element> getFunctions() {
+        return Collections.unmodifiableList(functions);
+    }
+
+    /**
+     * Returns all {@code <validator>} elements in document order.
+     *
+     * @return all {@code <validator>} elements
+     */
+    List<Element> getValidators() {
+        return Collections.unmodifiableList(validators);
+    }
+
+    /**
+     * Returns the {@code <tag>} elements by name. If a name occurs more than once, the first
+     * element wins, as in the stylesheets.
+     *
+     * @return the {@code <tag>} elements by name
+     */
+    Map<String, Element> getTagsByName() {
+        if (tagsByName == null) {
+            tagsByName = byName(tags);
+        }
+        return tagsByName;
+    }
+
+    /**
+     * Returns the {@code <tag-file>} elements by name. If a name occurs more than once, the first
+     * element wins, as in the stylesheets.
+     *
+     * @return the {@code <tag-file>} elements by name
+     */
+    Map<String, Element> getTagFilesByName() {
+        if (tagFilesByName == null) {
+            tagFilesByName = byName(tagFiles);
+        }
+        return tagFilesByName;
+    }
+
+    /**
+     * Returns the {@code <function>} elements by name. If a name occurs more than once, the first
+     * element wins, as in the stylesheets.
+     *
+     * @return the {@code <function>} elements by name
+     */
+    Map<String, Element> getFunctionsByName() {
+        if (functionsByName == null) {
+            functionsByName = byName(functions);
+        }
+        return functionsByName;
+    }
+
+    /**
+     * Returns the {@code <validator>} elements by their validator-class.
+     *
+     * @return the {@code <validator>} elements by their validator-class
+     */
+    Map<String, Element> getValidatorsByClass() {
+        final Map<String, Element> result = new LinkedHashMap<>();
+        for (Element validator : validators) {
+            final String validatorClass = childValue(validator, "validator-class");
+            if (validatorClass != null) {
+                result.putIfAbsent(validatorClass, validator);
+            }
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Returns the summary document holding only this tag library, if it is still available.
+     *
+     * @return the summary document or {@code null} if it was not created or already dropped
+     */
+    Document getSource() {
+        return source == null ? null : source.get();
+    }
+
+    /**
+     * Sets the summary document holding only this tag library. It is kept as long as memory
+     * permits.
+     *
+     * @param source the summary document
+     */
+    void setSource(final Document source) {
+        this.source = new SoftReference<>(source);
+    }
+
+    /**
+     * Returns the locations the tag library was found at, e.g. the same TLD in several web
+     * applications.
+     *
+     * @return the locations of the tag library, the loaded one first
+     */
+    List<String> getLocations() {
+        return locations;
+    }
+
+    /**
+     * Sets the locations the tag library was found at.
+     *
+     * @param locations the locations of the tag library, the loaded one first
+     */
+    void setLocations(final List<String> locations) {
+        this.locations = List.copyOf(locations);
+    }
+
+    /**
+     * Copies the parts of the tag library needed for the overview pages into the given document:
+     * the short-name, display-name, description and URI of the tag library and the name of each
+     * tag, tag file and function. The copy is not appended to the document.
+     *
+     * @param target the document to copy the tag library into
+     *
+     * @return the summary of the tag library, owned by the given document
+     */
+    Element copySummary(final Document target) {
+        final Element summary = (Element) target.importNode(taglib, false);
+
+        for (Node node = taglib.getFirstChild(); node != null; node = node.getNextSibling()) {
+            if (node.getNodeType() != Node.ELEMENT_NODE) {
+                continue;
+            }
+
+            final Element element = (Element) node;
+            switch (localName(element)) {
+                case "short-name":
+                case "display-name":
+                case "description":
+                case "uri":
+                    summary.appendChild(target.importNode(element, true));
+                    break;
+                case "tag":
+                case "tag-file":
+                case "function":
+                    final Element component = (Element) target.importNode(element, false);
+                    final Element name = child(element, "name");
+                    if (name != null) {
+                        component.appendChild(target.importNode(name, true));
+                    }
+                    summary.appendChild(component);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        return summary;
+    }
+
+    /**
+     * Indexes the given elements by the value of their {@code <name>} child. Elements without a
+     * name are skipped.
+     *
+     * @param elements the elements to index
+     *
+     * @return the elements by name, in document order
+     */
+    private static Map<String, Element> byName(final List<Element> elements) {
+        final Map<String, Element> result = new LinkedHashMap<>();
+        for (Element element : elements) {
+            final String name = childValue(element, "name");
+            if (name != null) {
+                result.putIfAbsent(name, element);
+            }
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Returns the first direct child element of the parent with the given local name, regardless
+     * of its namespace.
+     *
+     * @param parent    the element to search
+     * @param localName the local name of the child element
+     *
+     * @return the first matching child element or {@code null} if there is none
+     */
+    static Element child(final Element parent, final String localName) {
+        for (Node node = parent.getFirstChild(); node != null; node = node.getNextSibling()) {
+            if (node.getNodeType() == Node.ELEMENT_NODE
+                    && localName.equals(localName((Element) node))) {
+                return (Element) node;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns all direct child elements of the parent with the given local name, regardless of
+     * their namespace.
+     *
+     * @param parent    the element to search
+     * @param localName the local name of the child elements
+     *
+     * @return the matching child elements in document order
+     */
+    static List<Element> children(final Element parent, final String localName) {
+        final List<Element> result = new ArrayList<>();
+        for (Node node = parent.getFirstChild(); node != null; node = node.getNextSibling()) {
+            if (node.getNodeType() == Node.ELEMENT_NODE
+                    && localName.equals(localName((Element) node))) {
+                result.add((Element) node);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the text of the first direct child element of the parent with the given local
+     * name. Returns {@code null} if the element was not found or does not start with text.
+     *
+     * @param parent    the element to search
+     * @param localName the local name of the child element
+     *
+     * @return the value of the body of the element
+     */
+    static String childValue(final Element parent, final String localName) {
+        final Element child = child(parent, localName);
+        if (child == null) {
+            return null;
+        }
+
+        final Node body = child.getFirstChild();
+        return body != null && body.getNodeType() == Node.TEXT_NODE ? body.getNodeValue() : null;
+    }
+
+    /**
+     * Returns the local name of the element, or the node name for elements which are not
+     * namespace-aware.
+     *
+     * @param element the element
+     *
+     * @return the local name of the element
+     */
+    private static String localName(final Element element) {
+        final String localName = element.getLocalName();
+        return localName == null ? element.getNodeName() : localName;
+    }
+}
@@ -0,0 +1,334 @@
+/*
+ * <license>
+ * Copyright (c) 2003-2004, Sun Microsystems, Inc.
+ * Copyright (c) 2022-2026, Web-Legacy
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of Sun Microsystems, Inc. nor the names of its
+ *       contributors may be used to endorse or promote products derived from
+ *       this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * </license>
+ */
+
+
+package io.github.weblegacy.tlddoc.main;
+
+import io.github.weblegacy.tlddoc.Version;
+import io.github.weblegacy.tlddoc.XmlSupport;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.xml.parsers.FactoryConfigurationError;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactoryConfigurationError;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import org.w3c.dom.Document;
+import org.xml.sax.SAXException;
+
+/**
+ * Size-bounded cache of upgraded TLDs on disk, which can be shared by any number of processes.
+ * Each upgraded TLD is stored as a compact XML file, named after the SHA-256 hash of the version
+ * of TLDDoc, the upgrade stylesheets and the hash of the original TLD. So a changed TLD or
+ * stylesheet simply misses the cache, and entries never have to be invalidated.
+ *
+ * <p>Entries are written into a temporary file first and then moved into place atomically, so
+ * other processes never read a partly written entry. Each hit updates the modification time of
+ * the entry; if the cache exceeds its maximum size, the least recently used entries are deleted
+ * while holding a lock on the cache directory. As file locks are held by the whole JVM, the
+ * instances of one JVM sharing a directory additionally synchronize on a monitor of their
+ * own.</p>
+ *
+ * @author ste-gr
+ */
+final class TldCache {
+
+    /**
+     * The default maximum size of the cache in bytes.
+     */
+    static final long DEFAULT_MAX_SIZE = 64L * 1024L * 1024L;
+
+    /**
+     * The file name extension of the entries.
+     */
+    private static final String EXTENSION = ".xml";
+
+    /**
+     * The file locked while evicting entries.
+     */
+    private static final String LOCK_FILE = ".lock";
+
+    /**
+     * The monitors of the cache directories in use, by their real path. Only one instance of this
+     * JVM at a time may lock a directory.
+     */
+    private static final Map<Path, Object> DIRECTORY_MONITORS = new ConcurrentHashMap<>();
+
+    /**
+     * The directory of the cache.
+     */
+    private final Path dir;
+
+    /**
+     * The maximum size of all entries in bytes.
+     */
+    private final long maxSize;
+
+    /**
+     * The hash of the upgrade stylesheets.
+     */
+    private final byte[] stylesheets;
+
+    /**
+     * The size of all entries in bytes, as far as known to this instance, or {@code -1} if not
+     * known yet.
+     */
+    private long size = -1;
+
+    /**
+     * Creates a new instance of {@link TldCache}.
+     *
+     * @param dir         the directory of the cache, created when the first entry is written
+     * @param maxSize     the maximum size of all entries in bytes
+     * @param stylesheets the contents of the upgrade stylesheets
+     */
+    TldCache(final Path dir, final long maxSize, final List<byte[]> stylesheets) {
+        this.dir = dir;
+        this.maxSize = maxSize;
+
+        final MessageDigest digest = sha256();
+        for (byte[] stylesheet : stylesheets) {
+            digest.update(stylesheet);
+        }
+        this.stylesheets = digest.digest();
+    }
+
+    /**
+     * Returns the key of the given TLD.
+     *
+     * @param tldHash the SHA-256 hash of the original TLD
+     *
+     * @return the key of the TLD
+     */
+    String key(final byte[] tldHash) {
+        final MessageDigest digest = sha256();
+        digest.update(Version.VERSION.getBytes(StandardCharsets.UTF_8));
+        digest.update(stylesheets);
+        final StringBuilder sb = new StringBuilder();
+        for (byte b : digest.digest(tldHash)) {
+            sb.append(Character.forDigit((b >> 4) & 0xf, 16))
+                    .append(Character.forDigit(b & 0xf, 16));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns the upgraded TLD of the given key and marks it as most recently used. Damaged
+     * entries are deleted.
+     *
+     * @param key the key of the TLD
+     *
+     * @return the upgraded TLD or {@code null} if the TLD is not cached
+     *
+     * @throws IOException                  if an I/O error has occurred
+     * @throws FactoryConfigurationError    in case of {@linkplain
+     * java.util.ServiceConfigurationError service configuration error} or if the implementation is
+     *                                      not available or cannot be instantiated.
+     * @throws ParserConfigurationException if a DocumentBuilder cannot be created which satisfies
+     *                                      the configuration requested.
+     */
+    Document get(final String key) throws IOException, FactoryConfigurationError,
+            ParserConfigurationException {
+
+        final Path entry = dir.resolve(key + EXTENSION);
+        final Document doc;
+        try (InputStream in = Files.newInputStream(entry)) {
+            doc = XmlSupport.documentBuilder().parse(in);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (SAXException e) {
+            Files.deleteIfExists(entry);
+            return null;
+        }
+
+        try {
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (NoSuchFileException e) {
+            // Evicted by another process in the meantime
+        }
+        return doc;
+    }
+
+    /**
+     * Adds the upgraded TLD to the cache and evicts the least recently used entries, if the cache
+     * gets too big.
+     *
+     * @param key the key of the TLD
+     * @param doc the upgraded TLD
+     *
+     * @throws IOException                          if an I/O error has occurred
+     * @throws TransformerFactoryConfigurationError Thrown in case of {@linkplain
+     * java.util.ServiceConfigurationError service configuration error} or if the implementation is
+     *                                              not available or cannot be instantiated.
+     * @throws TransformerException                 If an unrecoverable error occurs during the
+     *                                              course of the transformation.
+     */
+    void put(final String key, final Document doc) throws IOException,
+            TransformerFactoryConfigurationError, TransformerException {
+
+        Files.createDirectories(dir);
+        final Path entry = dir.resolve(key + EXTENSION);
+        final Path temp = Files.createTempFile(dir, key, ".tmp");
+        try {
+            final Transformer transformer = XmlSupport.newTransformer();
+            transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                transformer.transform(new DOMSource(doc), new StreamResult(out));
+            }
+            final long written = Files.size(temp);
+            try {
+                Files.move(temp, entry, StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, entry, StandardCopyOption.REPLACE_EXISTING);
+            }
+            added(written);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Adds the size of a new entry and evicts the least recently used entries, if the cache gets
+     * too big.
+     *
+     * @param written the size of the new entry in bytes
+     *
+     * @throws IOException if an I/O error has occurred
+     */
+    private synchronized void added(final long written) throws IOException {
+        size = size < 0 ? evict() : size + written;
+        if (size > maxSize) {
+            size = evict();
+        }
+    }
+
+    /**
+     * Deletes the least recently used entries, until the cache does not exceed its maximum size.
+     * The cache directory is locked meanwhile, so only one process and only one instance of this
+     * JVM at a time evicts entries.
+     *
+     * @return the size of all remaining entries in bytes
+     *
+     * @throws IOException if an I/O error has occurred
+     */
+    private long evict() throws IOException {
+        final Object monitor = DIRECTORY_MONITORS.computeIfAbsent(dir.toRealPath(),
+                p -> new Object());
+        synchronized (monitor) {
+            try (FileChannel channel = FileChannel.open(dir.resolve(LOCK_FILE),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                final FileLock lock = channel.lock();
+                try {
+                    return evictLocked();
+                } finally {
+                    lock.release();
+                }
+            }
+        }
+    }
+
+    /**
+     * Deletes the least recently used entries, until the cache does not exceed its maximum size.
+     * The cache directory has to be locked by the caller.
+     *
+     * @return the size of all remaining entries in bytes
+     *
+     * @throws IOException if an I/O error has occurred
+     */
+    private long evictLocked() throws IOException {
+        final List<Map.Entry<Path, BasicFileAttributes>> entries = new ArrayList<>();
+        long total = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + EXTENSION)) {
+            for (Path file : files) {
+                try {
+                    final BasicFileAttributes attributes = Files.readAttributes(file,
+                            BasicFileAttributes.class);
+                    entries.add(Map.entry(file, attributes));
+                    total += attributes.size();
+                } catch (NoSuchFileException e) {
+                    // Evicted by another process in the meantime
+                }
+            }
+        }
+
+        entries.sort(Comparator.comparing(e -> e.getValue().lastModifiedTime()));
+        for (Map.Entry<Path, BasicFileAttributes> entry : entries) {
+            if (total <= maxSize) {
+                break;
+            }
+            try {
+                Files.deleteIfExists(entry.getKey());
+                total -= entry.getValue().size();
+            } catch (IOException e) {
+                // Still in use, e.g. read by another process on Windows
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Returns a new SHA-256 digest.
+     *
+     * @return the new digest
+     */
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform has to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -34,12 +34,17 @@ package io.github.weblegacy.tlddoc.main;
 import io.github.weblegacy.tlddoc.Utils;
 import io.github.weblegacy.tlddoc.Version;
 import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.function.Consumer;
 
@@ -59,16 +64,45 @@ public class TldDoc {
             + " * Stefan Graff, Web-Legacy\n"
             + "\n"
             + "Usage: tlddoc [options] taglib1 [taglib2 [taglib3 ...]]\n"
+            + "       tlddoc serve [serve-options] [options] taglib1 [taglib2 ...]\n"
+            + "       tlddoc -batch <manifest> [batch-options] [options]\n"
             + "Options:\n"
             + "  -help                  Displays this help message\n"
             + "  -xslt <directory>      Use the XSLT files in the given directory\n"
             + "                         instead of the defaults.\n"
             + "  -d <directory>         Destination directory for output files\n"
             + "                         (defaults to new dir called 'out')\n"
+            + "  -o <file>              Write all output files into the given ZIP/JAR\n"
+            + "                         archive instead of a directory\n"
             + "  -doctitle <html-code>  Include title for the TLD index (first) page\n"
             + "  -windowtitle <text>    Browser window title\n"
             + "  -v                     Verbose Mode\n"
             + "  -q                     Quiet Mode\n"
+            + "  -dump-stages <dir>     Write the output of each TLD upgrade stage\n"
+            + "                         into the given directory\n"
+            + "  -tld-cache <dir>       Keep the upgraded TLDs in the given directory\n"
+            + "                         and reuse them in later runs\n"
+            + "  -tld-cache-size <MiB>  Maximum size of the TLD cache (defaults to 64)\n"
+            + "  -streaming             Generate one tag library at a time to bound\n"
+            + "                         the memory needed\n"
+            + "  -threads <count>       Number of threads loading the tag libraries\n"
+            + "                         (defaults to the number of processors)\n"
+            + "  -stats                 Print the time spent in each phase and the\n"
+            + "                         slowest libraries, tag files and pages\n"
+            + "  -stats-json <file>     Write the statistics as JSON into the given file\n"
+            + "  -fragments <dir>       Write one fragment per tag library into the\n"
+            + "                         given directory instead of the documentation\n"
+            + "  -fragment <dir>        Add all fragments in the given directory,\n"
+            + "                         written before with -fragments\n"
+            + "\n"
+            + "Batch-Options (each line of the manifest holds the options and\n"
+            + "taglibs of one documentation, the options given here apply to all):\n"
+            + "  -batch-threads <count> Number of documentations generated in\n"
+            + "                         parallel (defaults to the number of processors)\n"
+            + "\n"
+            + "Serve-Options (render pages on demand over HTTP):\n"
+            + "  -port <port>           Port to listen on (defaults to 8080)\n"
+            + "  -cache-size <MiB>      Maximum size of the page cache (defaults to 32)\n"
             + "\n"
             + "taglib{1,2,3,...}:\n"
             + "  * If the path is a file that ends in .tld, process an\n"
@@ -82,8 +116,22 @@ public class TldDoc {
             + "    of tag files.\n"
             + "  * If the path is a directory containing a WEB-INF subdirectory,\n"
             + "    process all tag libraries in this web application.\n"
+            + "  * If the path is a file that ends in .fragment.xml, process\n"
+            + "    a tag library fragment written with -fragments; use\n"
+            + "    -fragment <dir> to process all fragments in a directory.\n"
             + "  * Otherwise, error.";
 
+    /**
+     * Number of slowest libraries, tag files and pages listed by {@code -stats} and
+     * {@code -stats-json}.
+     */
+    private static final int STATS_SLOWEST = 10;
+
+    /**
+     * Default port for serve-mode.
+     */
+    private static final int DEFAULT_PORT = 8080;
+
     /**
      * Private constructor as this is the main class.
      */
@@ -96,11 +144,161 @@ public class TldDoc {
      * @param args Arguments from command line
      */
     public static void main(String[] args) {
-        TldDocGenerator generator = new TldDocGenerator();
+        if (args.length > 0 && "serve".equals(args[0])) {
+            serve(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
+        Path manifest = null;
+        int batchThreads = Runtime.getRuntime().availableProcessors();
+
+        List<String> runArgs = new ArrayList<>();
+        Iterator<String> iter = Arrays.asList(args).iterator();
+        try {
+            while (iter.hasNext()) {
+                String arg = iter.next();
+                switch (arg) {
+                    case "-batch":
+                        manifest = Paths.get(iter.next());
+                        break;
+                    case "-batch-threads":
+                        arg = iter.next();
+                        batchThreads = Integer.parseInt(arg);
+                        if (batchThreads < 1) {
+                            usage("Number of batch threads must be at least 1: " + arg);
+                        }
+                        break;
+                    default:
+                        runArgs.add(arg);
+                        break;
+                }
+            }
+        } catch (NoSuchElementException | NumberFormatException e) {
+            usage("Invalid Syntax.");
+        }
+
+        if (manifest != null) {
+            try {
+                if (!new TldDocBatch(runArgs, batchThreads).run(manifest)) {
+                    System.exit(1);
+                }
+            } catch (IOException e) {
+                e.printStackTrace(System.err);
+                System.exit(1);
+            }
+            return;
+        }
 
         try {
-            initGenerator(args, generator);
+            generate(runArgs, new TldDocGenerator(), System.out);
+        } catch (UsageException e) {
+            usage(e.getMessage());
+        } catch (IOException | GeneratorException e) {
+            e.printStackTrace(System.err);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Generates the documentation as given by the arguments.
+     *
+     * @param args      Arguments from command line
+     * @param generator the generator to use
+     * @param out       the stream to write the statistics to
+     *
+     * @throws UsageException     if the arguments are not valid
+     * @throws IOException        if an I/O error has occurred
+     * @throws GeneratorException any error during generation
+     */
+    static void generate(List<String> args, TldDocGenerator generator, PrintStream out)
+            throws UsageException, IOException, GeneratorException {
+
+        boolean stats = false;
+        Path statsJson = null;
+        Path fragments = null;
+
+        List<String> generatorArgs = new ArrayList<>();
+        Iterator<String> iter = args.iterator();
+        try {
+            while (iter.hasNext()) {
+                String arg = iter.next();
+                switch (arg) {
+                    case "-stats":
+                        stats = true;
+                        break;
+                    case "-stats-json":
+                        statsJson = Paths.get(iter.next());
+                        break;
+                    case "-fragments":
+                        fragments = Paths.get(iter.next());
+                        break;
+                    default:
+                        generatorArgs.add(arg);
+                        break;
+                }
+            }
+        } catch (NoSuchElementException e) {
+            throw new UsageException("Invalid Syntax.");
+        }
+
+        initGenerator(generatorArgs.toArray(new String[0]), generator);
+        if (stats || statsJson != null) {
+            generator.setStatsLimit(STATS_SLOWEST);
+        }
+        if (fragments == null) {
             generator.generate();
+        } else {
+            generator.generateFragments(fragments);
+        }
+        if (stats) {
+            out.print(generator.getStats().format(STATS_SLOWEST));
+        }
+        if (statsJson != null) {
+            Files.writeString(statsJson, generator.getStats().toJson());
+        }
+    }
+
+    /**
+     * Serves the documentation over HTTP, rendering the pages on demand.
+     *
+     * @param args Arguments from command line, without the leading {@code serve}
+     */
+    private static void serve(String[] args) {
+        TldDocGenerator generator = new TldDocGenerator();
+        int port = DEFAULT_PORT;
+        long cacheSize = TldDocServer.DEFAULT_CACHE_SIZE;
+
+        List<String> generatorArgs = new ArrayList<>();
+        Iterator<String> iter = Arrays.asList(args).iterator();
+        try {
+            while (iter.hasNext()) {
+                String arg = iter.next();
+                switch (arg) {
+                    case "-port":
+                        port = Integer.parseInt(iter.next());
+                        break;
+                    case "-cache-size":
+                        cacheSize = Long.parseLong(iter.next()) * 1024L * 1024L;
+                        break;
+                    default:
+                        generatorArgs.add(arg);
+                        break;
+                }
+            }
+        } catch (NoSuchElementException | NumberFormatException e) {
+            usage("Invalid Syntax.");
+        }
+
+        try {
+            initGenerator(generatorArgs.toArray(new String[0]), generator);
+            TldDocServer server = new TldDocServer(generator, cacheSize);
+            server.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+            if (!generator.isQuiet()) {
+                System.out.println("Serving documentation at http://localhost:"
+                        + server.getAddress().getPort() + "/");
+            }
+        } catch (UsageException e) {
+            usage(e.getMessage());
         } catch (IOException | GeneratorException e) {
             e.printStackTrace(System.err);
             System.exit(1);
@@ -108,7 +306,7 @@ public class TldDoc {
     }
 
     private static void initGenerator(final String[] args, final TldDocGenerator generator)
-            throws IOException {
+            throws UsageException, IOException {
 
         Iterator<String> iter = Arrays.asList(args).iterator();
         boolean atLeastOneTld = false;
@@ -126,15 +324,42 @@ public class TldDoc {
                         arg = iter.next();
                         generator.setOutputDirectory(Paths.get(arg));
                         break;
-                    case "-help":
-                        usage(null);
+                    case "-o":
+                        arg = iter.next();
+                        generator.setOutputArchive(Paths.get(arg));
                         break;
+                    case "-help":
+                        throw new UsageException(null);
                     case "-q":
                         generator.setQuiet(true);
                         break;
                     case "-v":
                         generator.setVerbose(true);
                         break;
+                    case "-dump-stages":
+                        arg = iter.next();
+                        generator.setDumpStagesDirectory(Paths.get(arg));
+                        break;
+                    case "-tld-cache":
+                        arg = iter.next();
+                        generator.setTldCacheDirectory(Paths.get(arg));
+                        break;
+                    case "-tld-cache-size":
+                        arg = iter.next();
+                        generator.setTldCacheSize(Long.parseLong(arg) * 1024L * 1024L);
+                        break;
+                    case "-streaming":
+                        generator.setStreaming(true);
+                        break;
+                    case "-threads":
+                        arg = iter.next();
+                        int threads = Integer.parseInt(arg);
+                        if (threads < 1) {
+                            throw new UsageException("Number of threads must be at least 1: "
+                                    + arg);
+                        }
+                        generator.setThreads(threads);
+                        break;
                     case "-doctitle":
                         arg = iter.next();
                         generator.setDocTitle(arg);
@@ -152,11 +377,19 @@ public class TldDoc {
                     case "-tagdir":
                         atLeastOneTld |= addPath(iter, generator::addTagDir, "Tag Directory");
                         break;
+                    case "-fragment":
+                        atLeastOneTld |= addPath(iter, generator::addFragment, "Fragment");
+                        break;
                     default:
                         Path f = Paths.get(arg);
                         if (Files.exists(f)) {
                             String fn = Utils.getLowerFileName(f);
-                            if (fn.endsWith(".tld")) {
+                            if (Utils.isFragment(f)) {
+                                // If the path is a file that ends in .fragment.xml,
+                                // process a tag library fragment.
+                                generator.addFragment(f);
+                                atLeastOneTld = true;
+                            } else if (fn.endsWith(".tld")) {
                                 // If the path is a file that ends in .tld,
                                 // process an individual TLD file.
                                 generator.addTld(f);
@@ -199,26 +432,26 @@ public class TldDoc {
                                 if (foundWebInf) {
                                     atLeastOneTld = true;
                                 } else {
-                                    usage("Cannot determine tag library "
+                                    throw new UsageException("Cannot determine tag library "
                                             + "type for " + f.toAbsolutePath());
                                 }
                             }
                         } else {
-                            usage("File/directory not found: " + arg);
+                            throw new UsageException("File/directory not found: " + arg);
                         }
                         break;
                 }
             }
             if (!atLeastOneTld) {
-                usage("Please specify at least one TLD file.");
+                throw new UsageException("Please specify at least one TLD file.");
             }
-        } catch (NoSuchElementException e) {
-            usage("Invalid Syntax.");
+        } catch (NoSuchElementException | NumberFormatException e) {
+            throw new UsageException("Invalid Syntax.");
         }
     }
 
     private static boolean addPath(final Iterator<String> iter, final Consumer<Path> addDirFunction,
-            final String type) throws IOException {
+            final String type) throws UsageException {
 
         final String arg = iter.next();
         final Path dir = Paths.get(arg);
@@ -226,8 +459,24 @@ public class TldDoc {
             addDirFunction.accept(dir);
             return true;
         }
-        usage(type + " not found: " + arg);
-        return false;
+        throw new UsageException(type + " not found: " + arg);
+    }
+
+    /**
+     * Thrown if the arguments are not valid, or if the help is asked for.
+     */
+    static final class UsageException extends Exception {
+
+        private static final long serialVersionUID = 2981147014256187452L;
+
+        /**
+         * Constructs an instance of {@code UsageException} with the specified detail message.
+         *
+         * @param msg the detail message or {@code null} if the help is asked for.
+         */
+        UsageException(String msg) {
+            super(msg);
+        }
     }
 
     private static void usage(String message) {
@@ -0,0 +1,334 @@
+/*
+ * <license>
+ * Copyright (c) 2003-2004, Sun Microsystems, Inc.
+ * Copyright (c) 2022-2026, Web-Legacy
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of Sun Microsystems, Inc. nor the names of its
+ *       contributors may be used to endorse or promote products derived from
+ *       this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * </license>
+ */
+
+
+package io.github.weblegacy.tlddoc.main;
+
+import io.github.weblegacy.tlddoc.main.TldDoc.UsageException;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Generates several independent documentations in one run, as listed in a manifest. Each line of
+ * the manifest holds the options and tag libraries of one documentation, just like the command
+ * line. Empty lines and lines starting with {@code #} are ignored. Arguments containing blanks
+ * are quoted with {@code "} or {@code '}.
+ *
+ * <p>The entries are generated in parallel and share the compiled stylesheets and the list of
+ * TLDs of each JAR. The output of each entry is written as a whole when it is finished. A failed
+ * entry is reported and does not stop the others.</p>
+ *
+ * @author ste-gr
+ */
+final class TldDocBatch {
+
+    /**
+     * The arguments given for all entries, in front of the arguments of each entry.
+     */
+    private final List<String> defaults;
+
+    /**
+     * The number of entries generated in parallel.
+     */
+    private final int threads;
+
+    /**
+     * The caches shared by all entries.
+     */
+    private final SharedCaches caches = new SharedCaches();
+
+    /**
+     * Creates a new instance of {@link TldDocBatch}.
+     *
+     * @param defaults the arguments for all entries
+     * @param threads  the number of entries generated in parallel
+     */
+    TldDocBatch(List<String> defaults, int threads) {
+        this.defaults = defaults;
+        this.threads = threads;
+    }
+
+    /**
+     * Generates all entries of the given manifest.
+     *
+     * @param manifest the manifest listing the entries
+     *
+     * @return {@code true} if all entries were generated, {@code false} if any failed
+     *
+     * @throws IOException if the manifest could not be read
+     */
+    boolean run(Path manifest) throws IOException {
+        final List<Entry> entries = readManifest(manifest);
+        checkOutputs(entries);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            final Thread thread = new Thread(runnable, "tlddoc-batch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        int failed = 0;
+        try {
+            final List<Future<Boolean>> results = new ArrayList<>();
+            for (Entry entry : entries) {
+                results.add(executor.submit(() -> generate(entry)));
+            }
+            for (Future<Boolean> result : results) {
+                if (!result.get()) {
+                    failed++;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the batch", e);
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        System.out.println("Batch finished: " + (entries.size() - failed)
+                + " documentation(s) generated, " + failed + " failed.");
+        return failed == 0;
+    }
+
+    /**
+     * Generates the documentation of one entry and writes its output.
+     *
+     * @param entry the entry to generate
+     *
+     * @return {@code true} if the documentation was generated, {@code false} if it failed
+     */
+    private boolean generate(Entry entry) {
+        final Charset charset = Charset.defaultCharset();
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        final PrintStream out = new PrintStream(buffer, true, charset);
+        final long start = System.nanoTime();
+        String result;
+        try {
+            if (entry.error != null) {
+                throw new UsageException(entry.error);
+            }
+
+            final TldDocGenerator generator = new TldDocGenerator(caches);
+            generator.setGenerationListener(new ConsoleGenerationListener(out));
+            if (threads > 1) {
+                // The entries are generated in parallel already
+                generator.setThreads(1);
+            }
+            final List<String> args = new ArrayList<>(defaults);
+            args.addAll(entry.args);
+            TldDoc.generate(args, generator, out);
+            result = null;
+        } catch (UsageException e) {
+            result = e.getMessage() == null ? "-help is not allowed in a batch" : e.getMessage();
+        } catch (IOException | GeneratorException | RuntimeException e) {
+            e.printStackTrace(out);
+            result = e.toString();
+        }
+        final long millis = (System.nanoTime() - start) / 1_000_000L;
+
+        synchronized (System.out) {
+            System.out.print(buffer.toString(charset));
+            if (result == null) {
+                System.out.println(entry.label + ": Documentation generated in " + millis
+                        + " ms.");
+            } else {
+                System.out.println(entry.label + ": FAILED - " + result);
+            }
+            System.out.flush();
+        }
+        return result == null;
+    }
+
+    /**
+     * Marks every entry writing into the same output as an earlier entry as failed, as parallel
+     * entries would overwrite each other.
+     *
+     * @param entries the entries to check
+     */
+    private void checkOutputs(List<Entry> entries) {
+        final Map<Path, String> outputs = new HashMap<>();
+        for (Entry entry : entries) {
+            if (entry.error == null) {
+                final List<String> args = new ArrayList<>(defaults);
+                args.addAll(entry.args);
+                final Path output = output(args);
+                final String other = outputs.putIfAbsent(output, entry.label);
+                if (other != null) {
+                    entry.error = "Output " + output + " is used by " + other + " already";
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the output of the given arguments: the archive of {@code -o} or else the directory
+     * of {@code -d}.
+     *
+     * @param args the arguments
+     *
+     * @return the absolute output path
+     */
+    private static Path output(List<String> args) {
+        String directory = "out";
+        String archive = null;
+        for (int i = 0; i < args.size() - 1; i++) {
+            if ("-d".equals(args.get(i))) {
+                directory = args.get(++i);
+            } else if ("-o".equals(args.get(i))) {
+                archive = args.get(++i);
+            }
+        }
+        return Paths.get(archive == null ? directory : archive).toAbsolutePath().normalize();
+    }
+
+    /**
+     * Reads the entries of the given manifest.
+     *
+     * @param manifest the manifest
+     *
+     * @return the entries
+     *
+     * @throws IOException if the manifest could not be read
+     */
+    private static List<Entry> readManifest(Path manifest) throws IOException {
+        final List<String> lines = Files.readAllLines(manifest, StandardCharsets.UTF_8);
+        final List<Entry> entries = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            final String line = lines.get(i).trim();
+            if (!line.isEmpty() && !line.startsWith("#")) {
+                entries.add(new Entry(manifest.getFileName() + ":" + (i + 1), line));
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Splits the given line into arguments at blanks. Quoted arguments may contain blanks, a
+     * backslash escapes the next character within double quotes.
+     *
+     * @param line the line to split
+     *
+     * @return the arguments
+     *
+     * @throws IllegalArgumentException if a quote is not closed
+     */
+    private static List<String> tokenize(String line) {
+        final List<String> args = new ArrayList<>();
+        final StringBuilder arg = new StringBuilder();
+        boolean inArg = false;
+        char quote = 0;
+        for (int i = 0; i < line.length(); i++) {
+            final char c = line.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                } else if (c == '\\' && quote == '"' && i + 1 < line.length()) {
+                    arg.append(line.charAt(++i));
+                } else {
+                    arg.append(c);
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+                inArg = true;
+            } else if (Character.isWhitespace(c)) {
+                if (inArg) {
+                    args.add(arg.toString());
+                    arg.setLength(0);
+                    inArg = false;
+                }
+            } else {
+                arg.append(c);
+                inArg = true;
+            }
+        }
+        if (quote != 0) {
+            throw new IllegalArgumentException("Missing closing quote " + quote);
+        }
+        if (inArg) {
+            args.add(arg.toString());
+        }
+        return args;
+    }
+
+    /**
+     * One entry of the manifest.
+     */
+    private static final class Entry {
+
+        /**
+         * The manifest and line number of the entry.
+         */
+        final String label;
+
+        /**
+         * The arguments of the entry.
+         */
+        final List<String> args;
+
+        /**
+         * Why the entry cannot be generated, or {@code null} if it can.
+         */
+        String error;
+
+        /**
+         * Creates a new instance of {@link Entry}.
+         *
+         * @param label the manifest and line number of the entry
+         * @param line  the line of the manifest
+         */
+        Entry(String label, String line) {
+            this.label = label;
+            List<String> tokens;
+            try {
+                tokens = tokenize(line);
+            } catch (IllegalArgumentException e) {
+                tokens = List.of();
+                error = e.getMessage();
+            }
+            this.args = tokens;
+        }
+    }
+}
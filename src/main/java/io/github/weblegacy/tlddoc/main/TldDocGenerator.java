@@ -31,52 +31,83 @@
 
 package io.github.weblegacy.tlddoc.main;
 
+import io.github.weblegacy.tlddoc.ArchiveOutputSink;
 import io.github.weblegacy.tlddoc.Constants;
+import io.github.weblegacy.tlddoc.FileTreeOutputSink;
+import io.github.weblegacy.tlddoc.FragmentTagLibrary;
 import io.github.weblegacy.tlddoc.JarTldFileTagLibrary;
+import io.github.weblegacy.tlddoc.MemoryOutputSink;
 import io.github.weblegacy.tlddoc.TagDirImplicitTagLibrary;
+import io.github.weblegacy.tlddoc.TeeContentHandler;
 import io.github.weblegacy.tlddoc.TldFileTagLibrary;
 import io.github.weblegacy.tlddoc.Utils;
+import io.github.weblegacy.tlddoc.Version;
 import io.github.weblegacy.tlddoc.WarJarTldFileTagLibrary;
 import io.github.weblegacy.tlddoc.WarTagDirImplicitTagLibrary;
+import io.github.weblegacy.tlddoc.XmlSupport;
+import io.github.weblegacy.tlddoc.jfr.ConvertTldEvent;
+import io.github.weblegacy.tlddoc.jfr.CountingOutputStream;
+import io.github.weblegacy.tlddoc.jfr.GeneratePageEvent;
+import io.github.weblegacy.tlddoc.jfr.TagFileParseEvent;
+import io.github.weblegacy.tlddoc.jfr.TagLibraryLoadEvent;
+import io.github.weblegacy.tlddoc.main.GenerationStats.Item;
+import io.github.weblegacy.tlddoc.main.GenerationStats.Phase;
 import io.github.weblegacy.tlddoc.tagfileparser.Attribute;
 import io.github.weblegacy.tlddoc.tagfileparser.Directive;
 import io.github.weblegacy.tlddoc.tagfileparser.javacc.ParseException;
 import io.github.weblegacy.tlddoc.tagfileparser.javacc.TagFile;
-import java.io.CharArrayReader;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.function.Consumer;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import java.util.jar.JarInputStream;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.FactoryConfigurationError;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Result;
+import javax.xml.transform.Templates;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.TransformerFactoryConfigurationError;
 import javax.xml.transform.dom.DOMResult;
 import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.sax.SAXResult;
+import javax.xml.transform.sax.TransformerHandler;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.transform.stream.StreamSource;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
-import org.xml.sax.InputSource;
+import org.xml.sax.ContentHandler;
 import org.xml.sax.SAXException;
+import org.xml.sax.ext.LexicalHandler;
 
 /**
  * TldDoc Generator. Takes a set of TLD files and generates a set of javadoc-style HTML pages that
@@ -91,6 +122,24 @@ public class TldDocGenerator {
      */
     private final ArrayList<TagLibrary> tagLibraries = new ArrayList<>();
 
+    /**
+     * The content of the tag libraries added, by their URI and the SHA-256 hash of their TLD.
+     * Tag libraries with the same tag files as well are identical and generated only once.
+     */
+    private final Map<String, List<TagLibraryContent>> librariesByContent = new HashMap<>();
+
+    /**
+     * The content of the tag libraries read when they were discovered, until they are loaded, so
+     * the TLD is not read again.
+     */
+    private final Map<TagLibrary, TagLibraryContent> contents = new IdentityHashMap<>();
+
+    /**
+     * The locations of the tag libraries found more than once, without the location of the tag
+     * library itself.
+     */
+    private final Map<TagLibrary, List<String>> duplicates = new IdentityHashMap<>();
+
     /**
      * The directory containing the stylesheets, or null if the default stylesheets are to be used.
      */
@@ -101,6 +150,43 @@ public class TldDocGenerator {
      */
     private Path outputDirectory = Paths.get("out");
 
+    /**
+     * The ZIP- or JAR-archive for generated files, or {@code null} if the files are to be written
+     * into {@code outputDirectory}.
+     */
+    private Path outputArchive = null;
+
+    /**
+     * The directory to write the output of each upgrade stage to or {@code null} if not wanted.
+     */
+    private Path dumpStagesDirectory = null;
+
+    /**
+     * The directory of the cache of upgraded TLDs or {@code null} if not wanted.
+     */
+    private Path tldCacheDirectory = null;
+
+    /**
+     * The maximum size of the cache of upgraded TLDs in bytes.
+     */
+    private long tldCacheSize = TldCache.DEFAULT_MAX_SIZE;
+
+    /**
+     * The cache of upgraded TLDs of the current loading or {@code null} if not wanted.
+     */
+    private TldCache tldCache;
+
+    /**
+     * The output sink of the current generation.
+     */
+    private OutputSink outputSink;
+
+    /**
+     * The search index of the current generation, built while the pages of each tag library are
+     * generated.
+     */
+    private SearchIndex searchIndex;
+
     /**
      * The browser window title for the documentation.
      */
@@ -121,16 +207,89 @@ public class TldDocGenerator {
      */
     private boolean verbose;
 
+    /**
+     * {@code True} if the tag libraries are to be generated one at a time, keeping only a summary
+     * index of all tag libraries in memory.
+     */
+    private boolean streaming;
+
+    /**
+     * The number of threads loading the tag libraries in parallel.
+     */
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Receives the progress and the warnings, unless in quiet mode.
+     */
+    private GenerationListener listener = new ConsoleGenerationListener();
+
     /**
      * The summary TLD document, used as input into XSLT.
      */
     private Document summaryTld;
 
+    /**
+     * The index of each tag library in the summary TLD document, in document order.
+     */
+    private final ArrayList<TaglibIndex> taglibIndexes = new ArrayList<>();
+
+    /**
+     * The index of each tag library in the summary TLD document, by short-name.
+     */
+    private final Map<String, TaglibIndex> taglibsByShortName = new HashMap<>();
+
     /**
      * Path to tlddoc resources.
      */
     private static final String RESOURCE_PATH = "/io/github/weblegacy/tlddoc/resources";
 
+    /**
+     * The overview pages, summarizing all TLDs. Each page is generated by the stylesheet of the
+     * same name with the extension {@code .xsl}.
+     */
+    private static final String[] OVERVIEW_PAGES = {"index.html", "help-doc.html",
+        "overview-frame.html", "alltags-frame.html", "alltags-noframe.html",
+        "overview-summary.html"};
+
+    /**
+     * The pages of each TLD. Each page is generated by the stylesheet of the same name with the
+     * extension {@code .xsl}.
+     */
+    private static final String[] TLD_PAGES = {"tld-frame.html", "tld-summary.html"};
+
+    /**
+     * The stylesheets upgrading the TLDs, in the order they are used.
+     */
+    private static final String[] UPGRADE_STYLESHEETS = {"tld1_1-tld1_2.xsl",
+        "tld1_2-tld2_0.xsl", "tld2_0-tld2_1.xsl", "tld2_1-tld3_0.xsl", "tld3_0-tld3_1.xsl",
+        "tld3_1-tld4_0.xsl", "tld4_0-tld4_0.xsl"};
+
+    /**
+     * The stylesheets needed for every generation, in the order they are usually used. They are
+     * compiled in the background while the tag libraries are loaded. The stylesheets of the
+     * earlier upgrade stages are compiled on demand, as they are not needed for all tag libraries.
+     */
+    private static final String[] PRECOMPILED_STYLESHEETS = {"tld4_0-tld4_0.xsl",
+        "index.html.xsl", "help-doc.html.xsl", "overview-frame.html.xsl",
+        "alltags-frame.html.xsl", "alltags-noframe.html.xsl", "overview-summary.html.xsl",
+        "tld-frame.html.xsl", "tld-summary.html.xsl", "tag.html.xsl", "function.html.xsl"};
+
+    /**
+     * The caches, which may be shared with other generators.
+     */
+    private final SharedCaches caches;
+
+    /**
+     * The compiled or compiling stylesheets, by XSLT directory and resource name. Each stylesheet
+     * is compiled only once.
+     */
+    private final Map<String, Future<Templates>> templatesCache;
+
+    /**
+     * The statistics of the discovery and the last generation.
+     */
+    private final GenerationStats stats = new GenerationStats();
+
     /**
      * Helps uniquely generate substitute prefixes in the case of missing or duplicate short-names.
      */
@@ -140,6 +299,18 @@ public class TldDocGenerator {
      * Creates a new TldDocGenerator.
      */
     public TldDocGenerator() {
+        this(new SharedCaches());
+    }
+
+    /**
+     * Creates a new TldDocGenerator using the given caches, e.g. to keep the compiled stylesheets
+     * of all entries of a batch.
+     *
+     * @param caches the caches to use
+     */
+    TldDocGenerator(SharedCaches caches) {
+        this.caches = caches;
+        this.templatesCache = caches.templates();
     }
 
     /**
@@ -148,7 +319,75 @@ public class TldDocGenerator {
      * @param tagLibrary The tag library to add.
      */
     public void addTagLibrary(TagLibrary tagLibrary) {
+        final TagLibrary original = findIdentical(tagLibrary);
+        if (original != null) {
+            duplicates.computeIfAbsent(original, l -> new ArrayList<>())
+                    .add(tagLibrary.getPathDescription());
+            listener().libraryDuplicate(tagLibrary, original);
+            return;
+        }
+
         tagLibraries.add(tagLibrary);
+        listener().libraryDiscovered(tagLibrary);
+    }
+
+    /**
+     * Returns the tag library found before with the same URI, TLD and tag files as the given tag
+     * library, e.g. the same JAR in several web applications. The content of the tag library is
+     * read and kept for loading it, and the tag library is closed again. The tag files are only
+     * read if a tag library with the same URI and TLD was found before.
+     *
+     * @param tagLibrary the tag library found
+     *
+     * @return the identical tag library or {@code null} if there is none, if the tag library is
+     *         already normalized or if it cannot be read
+     */
+    private TagLibrary findIdentical(TagLibrary tagLibrary) {
+        if (tagLibrary.isNormalized()) {
+            return null;
+        }
+
+        final TagLibraryContent content;
+        try (TagLibrary library = tagLibrary) {
+            content = TagLibraryContent.read(library);
+        } catch (IOException | SAXException | FactoryConfigurationError
+                | ParserConfigurationException | TransformerFactoryConfigurationError
+                | TransformerException e) {
+            // Reported when the tag library is loaded
+            return null;
+        }
+
+        if (content.getTldKey() != null) {
+            final List<TagLibraryContent> candidates = librariesByContent.computeIfAbsent(
+                    content.getTldKey(), k -> new ArrayList<>());
+            try {
+                for (TagLibraryContent candidate : candidates) {
+                    if (candidate.getKey().equals(content.getKey())) {
+                        return candidate.getTagLibrary();
+                    }
+                }
+            } catch (IOException e) {
+                // Reported when the tag library is loaded, not deduplicated meanwhile
+            }
+            candidates.add(content);
+        }
+        contents.put(tagLibrary, content);
+        return null;
+    }
+
+    /**
+     * Returns all locations the given tag library was found at.
+     *
+     * @param tagLibrary the tag library
+     *
+     * @return the location of the tag library itself, followed by the locations of the identical
+     *         tag libraries found later
+     */
+    private List<String> locations(TagLibrary tagLibrary) {
+        final List<String> locations = new ArrayList<>();
+        locations.add(tagLibrary.getPathDescription());
+        locations.addAll(duplicates.getOrDefault(tagLibrary, List.of()));
+        return locations;
     }
 
     /**
@@ -157,7 +396,7 @@ public class TldDocGenerator {
      * @param tld The TLD file to add
      */
     public void addTld(Path tld) {
-        addTagLibrary(new TldFileTagLibrary(tld));
+        discover(tld, f -> addTagLibrary(new TldFileTagLibrary(f)));
     }
 
     /**
@@ -166,22 +405,32 @@ public class TldDocGenerator {
      * @param path The path to the root of the web application.
      */
     public void addWebApp(Path path) {
+        discover(path, this::scanWebApp);
+    }
+
+    /**
+     * Adds all the tag libraries found in the given web application.
+     *
+     * @param path The path to the root of the web application.
+     */
+    private void scanWebApp(Path path) {
         try {
             Path webinf = path.endsWith("WEB-INF") ? path : path.resolve("WEB-INF");
+            Path root = webinf.toAbsolutePath().getParent();
 
             // Scan all subdirectories of /WEB-INF/ for .tld files
-            addWebAppTldsIn(webinf);
+            addWebAppTldsIn(webinf, root);
 
             // Add all JAR files in /WEB-INF/lib that might potentially
             // contain TLDs.
             addWebAppJarsIn(webinf.resolve("lib"));
 
             // Add all implicit tag libraries in /WEB-INF/tags
-            addWebAppTagDirsIn(webinf.resolve("tags"));
+            addWebAppTagDirsIn(webinf.resolve("tags"), root);
 
         } catch (IOException e) {
-            println("WARNING: Could not access one or more entries in " + path.toAbsolutePath()
-                    + ".  Skipping Web-App.  Reason: " + e.getMessage());
+            listener().warning("Could not access one or more entries in "
+                    + path.toAbsolutePath() + ".  Skipping Web-App.", e);
         }
     }
 
@@ -189,11 +438,13 @@ public class TldDocGenerator {
      * Adds all TLD files under the given directory, recursively.
      *
      * @param path The path to search (recursively) for TLDs in.
+     * @param root The root of the web application.
      *
      * @throws IOException if an I/O error has occurred
      */
-    private void addWebAppTldsIn(Path path) throws IOException {
-        Utils.processFiles(path, Utils::isTld, this::addTld);
+    private void addWebAppTldsIn(Path path, Path root) throws IOException {
+        Utils.processFiles(path, Utils::isTld,
+                tld -> addTagLibrary(new TldFileTagLibrary(tld, root)));
     }
 
     /**
@@ -225,7 +476,7 @@ public class TldDocGenerator {
      * @throws IOException if an I/O error has occurred
      */
     private void addWebAppJarsIn(Path path) throws IOException {
-        Utils.processFiles(path, Utils::isJar, this::addJar);
+        Utils.processFiles(path, Utils::isJar, this::scanJar);
     }
 
     /**
@@ -256,9 +507,9 @@ public class TldDocGenerator {
                             }
                         }
                     } catch (IOException e) {
-                        println("WARNING: Could not access one or more entries in "
+                        listener().warning("Could not access one or more entries in "
                                 + war.toAbsolutePath() + " entry " + entryName
-                                + ".  Skipping JAR.  Reason: " + e.getMessage());
+                                + ".  Skipping JAR.", e);
                     }
                 }
             }
@@ -269,11 +520,13 @@ public class TldDocGenerator {
      * Adds all implicit tag libraries under the given directory, recursively.
      *
      * @param path The path to search (recursively) for tag file directories in
+     * @param root The root of the web application.
      *
      * @throws IOException if an I/O error has occurred
      */
-    private void addWebAppTagDirsIn(Path path) throws IOException {
-        Utils.processDirs(path, this::addTagDir);
+    private void addWebAppTagDirsIn(Path path, Path root) throws IOException {
+        Utils.processDirs(path,
+                tagdir -> addTagLibrary(new TagDirImplicitTagLibrary(tagdir, root)));
     }
 
     /**
@@ -302,18 +555,37 @@ public class TldDocGenerator {
      * @param jar The JAR file to add.
      */
     public void addJar(Path jar) {
-        try (JarFile jarFile = new JarFile(jar.toFile())) {
-            // Search for all TLD files in the JAR file
-            Enumeration<JarEntry> entries = jarFile.entries();
-            while (entries.hasMoreElements()) {
-                JarEntry jarEntry = entries.nextElement();
-                if (Utils.isTld(jarEntry.getName())) {
-                    addTagLibrary(new JarTldFileTagLibrary(jar, jarEntry.getName()));
+        discover(jar, this::scanJar);
+    }
+
+    /**
+     * Adds all the tag libraries found in the given JAR.
+     *
+     * @param jar The JAR file to add.
+     */
+    private void scanJar(Path jar) {
+        try {
+            List<String> tlds = caches.getJarTlds(jar);
+            if (tlds == null) {
+                tlds = new ArrayList<>();
+                try (JarFile jarFile = new JarFile(jar.toFile())) {
+                    // Search for all TLD files in the JAR file
+                    Enumeration<JarEntry> entries = jarFile.entries();
+                    while (entries.hasMoreElements()) {
+                        JarEntry jarEntry = entries.nextElement();
+                        if (Utils.isTld(jarEntry.getName())) {
+                            tlds.add(jarEntry.getName());
+                        }
+                    }
                 }
+                caches.putJarTlds(jar, tlds);
+            }
+            for (String tld : tlds) {
+                addTagLibrary(new JarTldFileTagLibrary(jar, tld));
             }
         } catch (IOException e) {
-            println("WARNING: Could not access one or more entries in " + jar.toAbsolutePath()
-                    + ".  Skipping JAR.  Reason: " + e.getMessage());
+            listener().warning("Could not access one or more entries in "
+                    + jar.toAbsolutePath() + ".  Skipping JAR.", e);
         }
     }
 
@@ -323,6 +595,15 @@ public class TldDocGenerator {
      * @param path The war containing the web application
      */
     public void addWar(Path path) {
+        discover(path, this::scanWar);
+    }
+
+    /**
+     * Adds all the tag libraries found in the given web application packaged as a WAR file.
+     *
+     * @param path The war containing the web application
+     */
+    private void scanWar(Path path) {
         try {
             // Scan all subdirectories of /WEB-INF/ for .tld files
             addWarTldsIn(path, "WEB-INF/");
@@ -334,8 +615,8 @@ public class TldDocGenerator {
             // Add all implicit tag libraries in /WEB-INF/tags
             addWarTagDirsIn(path, "WEB-INF/tags/");
         } catch (IOException e) {
-            println("WARNING: Could not access one or more entries in " + path.toAbsolutePath()
-                    + ".  Skipping WAR.  Reason: " + e.getMessage());
+            listener().warning("Could not access one or more entries in "
+                    + path.toAbsolutePath() + ".  Skipping WAR.", e);
         }
     }
 
@@ -345,7 +626,55 @@ public class TldDocGenerator {
      * @param tagdir The tag directory to add
      */
     public void addTagDir(Path tagdir) {
-        addTagLibrary(new TagDirImplicitTagLibrary(tagdir));
+        discover(tagdir, dir -> addTagLibrary(new TagDirImplicitTagLibrary(dir)));
+    }
+
+    /**
+     * Adds the given tag library fragment, written by {@link #generateFragments(Path)}, or all
+     * fragments in the given directory in the order of their file names. Fragments are neither
+     * upgraded nor populated again, so the original tag libraries are not needed.
+     *
+     * @param path The fragment or the directory of fragments to add
+     */
+    public void addFragment(Path path) {
+        discover(path, this::scanFragments);
+    }
+
+    /**
+     * Adds the given tag library fragment or all fragments in the given directory.
+     *
+     * @param path The fragment or the directory of fragments to add
+     */
+    private void scanFragments(Path path) {
+        if (!Files.isDirectory(path)) {
+            addTagLibrary(new FragmentTagLibrary(path));
+            return;
+        }
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(path, Utils::isFragment)) {
+            final List<Path> fragments = new ArrayList<>();
+            files.forEach(fragments::add);
+            fragments.sort(null);
+            for (Path fragment : fragments) {
+                addTagLibrary(new FragmentTagLibrary(fragment));
+            }
+        } catch (IOException e) {
+            listener().warning("Could not access one or more entries in "
+                    + path.toAbsolutePath() + ".  Skipping fragments.", e);
+        }
+    }
+
+    /**
+     * Adds the tag libraries found by the given scanner and records the time spent as discovery.
+     *
+     * @param path    The path to scan
+     * @param scanner The scanner adding the tag libraries found
+     */
+    private void discover(Path path, Consumer<Path> scanner) {
+        final long start = System.nanoTime();
+        final int found = tagLibraries.size();
+        scanner.accept(path);
+        stats.record(Phase.DISCOVERY, start, tagLibraries.size() - found);
     }
 
     /**
@@ -368,6 +697,49 @@ public class TldDocGenerator {
         this.outputDirectory = dir;
     }
 
+    /**
+     * Sets the ZIP- or JAR-archive for generated files. If specified, all files are streamed into
+     * this archive instead of the output directory.
+     *
+     * @param archive The archive for generated files or {@code null} to use the output directory.
+     */
+    public void setOutputArchive(Path archive) {
+        this.outputArchive = archive;
+    }
+
+    /**
+     * Sets the directory to write the output of each upgrade stage to. Each stage is written as
+     * it is produced, so the upgrade is not run again. The files are named after the number and
+     * the file name of the tag library and after the stylesheet of the stage, e.g.
+     * {@code 001-taglib.tld-tld1_2-tld2_0.xml}.
+     *
+     * @param dir The directory for the upgrade stages or {@code null} to not write them.
+     */
+    public void setDumpStagesDirectory(Path dir) {
+        this.dumpStagesDirectory = dir;
+    }
+
+    /**
+     * Sets the directory of the cache of upgraded TLDs. TLDs read from a file are upgraded only
+     * once and then taken from the cache, as long as neither the TLD nor the stylesheets nor the
+     * version of TLDDoc change. The cache can be shared by several processes.
+     *
+     * @param dir The directory of the cache or {@code null} to not use a cache.
+     */
+    public void setTldCacheDirectory(Path dir) {
+        this.tldCacheDirectory = dir;
+    }
+
+    /**
+     * Sets the maximum size of the cache of upgraded TLDs. If the cache gets bigger, the least
+     * recently used TLDs are deleted.
+     *
+     * @param size The maximum size in bytes.
+     */
+    public void setTldCacheSize(long size) {
+        this.tldCacheSize = size;
+    }
+
     /**
      * Sets the browser window title for the documentation.
      *
@@ -404,175 +776,1015 @@ public class TldDocGenerator {
         return quiet;
     }
 
+    /**
+     * Sets the listener receiving the progress and the warnings of the generation. Defaults to a
+     * {@link ConsoleGenerationListener}. Set it before adding tag libraries, to receive the
+     * warnings of the discovery. In quiet mode the listener is not notified.
+     *
+     * @param listener the listener, {@link GenerationListener#NONE} to ignore everything
+     */
+    public void setGenerationListener(GenerationListener listener) {
+        this.listener = listener;
+    }
+
     /**
      * Sets verbose mode (produce {@code stdout} with all tld-conversions during generation).
      *
      * @param verbose {@code true} if all tld-conversions output is to be produced, {@code false}
      *                otherwise.
      */
-    public void setVerbose(boolean verbose) {
-        this.verbose = verbose;
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    /**
+     * Returns {@code true} if the generator is in verbose mode or {@code false} if not.
+     *
+     * @return {@code True} if all tld-conversions output is to be produced, {@code false}
+     *         otherwise.
+     */
+    public boolean isVerbose() {
+        return verbose;
+    }
+
+    /**
+     * Sets streaming mode. In streaming mode each tag library is loaded, translated, populated and
+     * generated on its own and is then dropped, so the memory needed does not grow with the size
+     * of all tag libraries. Only a summary index of each tag library (the short-name,
+     * display-name, description and URI, and the names of its tags, tag files and functions) is
+     * kept for the overview pages. Custom stylesheets for the overview pages must not depend on
+     * anything else. Streaming mode does not affect {@link #load()}.
+     *
+     * @param streaming {@code true} to generate one tag library at a time, {@code false} to load
+     *                  all tag libraries first.
+     */
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    /**
+     * Returns {@code true} if the generator is in streaming mode or {@code false} if not.
+     *
+     * @return {@code True} if one tag library is generated at a time, {@code false} otherwise.
+     */
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    /**
+     * Sets the number of threads loading, translating and populating the tag libraries in
+     * parallel. The tag libraries are still merged and reported in their original order. Defaults
+     * to the number of available processors. With {@code 1} the tag libraries are loaded one
+     * after the other by the calling thread. Streaming mode always loads one tag library at a
+     * time.
+     *
+     * @param threads the number of threads, at least {@code 1}
+     */
+    public void setThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1: " + threads);
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * Returns the number of threads loading the tag libraries in parallel.
+     *
+     * @return the number of threads
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Sets the number of the slowest tag libraries, tag files and pages to keep in the
+     * {@linkplain #getStats() statistics}. Defaults to {@code 0}, so only the timings of the phases
+     * are recorded.
+     *
+     * @param limit the number of the slowest items of each kind, at least {@code 0}
+     */
+    public void setStatsLimit(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("limit must be at least 0: " + limit);
+        }
+        stats.setLimit(limit);
+    }
+
+    /**
+     * Returns the statistics of the discovery and of the last generation: the wall time and counts
+     * of each phase and, if {@linkplain #setStatsLimit(int) requested}, the time spent on the
+     * slowest tag libraries, tag files, pages and stylesheets.
+     *
+     * @return the statistics
+     */
+    public GenerationStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Commences documentation generation.
+     *
+     * @throws GeneratorException any error during generation
+     */
+    public void generate() throws GeneratorException {
+        final OutputSink sink;
+        try {
+            sink = outputArchive == null ? new FileTreeOutputSink(outputDirectory)
+                    : new ArchiveOutputSink(outputArchive);
+        } catch (IOException e) {
+            throw new GeneratorException(e);
+        }
+
+        generate(sink);
+    }
+
+    /**
+     * Commences documentation generation in memory. Nothing is written to the file system, so
+     * neither an output directory nor a temporary directory is needed. Together with
+     * {@link #setQuiet(boolean) quiet mode} nothing is written to {@code stdout} either, which
+     * makes this suitable for embedding, e.g. to render and cache pages in a servlet.
+     *
+     * @return the generated files by their path relative to the root of the documentation
+     *         (always separated by {@code '/'}), in the order they were generated
+     *
+     * @throws GeneratorException any error during generation
+     */
+    public Map<String, byte[]> generateInMemory() throws GeneratorException {
+        final MemoryOutputSink sink = new MemoryOutputSink();
+        generate(sink);
+
+        return sink.getFiles();
+    }
+
+    /**
+     * Commences documentation generation into the given output sink. The sink is closed when the
+     * generation is finished. Embedders can implement their own sink, e.g. to consume each
+     * generated file as a stream of {@code (path, bytes)} entries.
+     *
+     * @param sink The destination for the generated files.
+     *
+     * @throws GeneratorException any error during generation
+     */
+    public void generate(OutputSink sink) throws GeneratorException {
+        try (OutputSink out = sink) {
+            outputSink = out;
+            searchIndex = new SearchIndex();
+            stats.resetGeneration();
+
+            precompileStylesheets();
+            long start = System.nanoTime();
+            copyStaticFiles();
+            stats.record(Phase.COPY_STATIC_FILES, start, 1);
+            if (streaming) {
+                generateStreaming();
+            } else {
+                createTldSummaryDoc();
+                start = System.nanoTime();
+                generateOverview(summaryTld);
+                start = stats.record(Phase.OVERVIEW, start, OVERVIEW_PAGES.length);
+                final int pages = stats.getCount(Item.PAGE);
+                generateTldDetail();
+                stats.record(Phase.TLD_DETAIL, start, stats.getCount(Item.PAGE) - pages);
+            }
+            writeSearchIndex();
+            outputSuccessMessage();
+        } catch (IOException | SAXException | TransformerFactoryConfigurationError
+                | FactoryConfigurationError | ParserConfigurationException
+                | TransformerException e) {
+            throw new GeneratorException(e);
+        } finally {
+            outputSink = null;
+            searchIndex = null;
+        }
+    }
+
+    /**
+     * Loads, translates and populates all tag libraries, without generating any files. Afterwards
+     * single pages can be rendered on demand with {@link #renderPage(String, OutputStream)}.
+     *
+     * @throws GeneratorException any error during loading
+     */
+    public void load() throws GeneratorException {
+        try {
+            stats.resetGeneration();
+            precompileStylesheets();
+            createTldSummaryDoc();
+        } catch (IOException | SAXException | TransformerFactoryConfigurationError
+                | FactoryConfigurationError | ParserConfigurationException
+                | TransformerException e) {
+            throw new GeneratorException(e);
+        }
+    }
+
+    /**
+     * Loads, translates and populates all tag libraries and writes each of them as a fragment into
+     * the given directory, instead of generating the documentation. A fragment holds the
+     * {@code <taglib>} element as it is merged into the summary document and is named after the
+     * short-name of the tag library, e.g. {@code mytags.fragment.xml}. The documentation of any
+     * number of fragments can be generated later with {@link #addFragment(Path)}, without
+     * loading the original tag libraries again.
+     *
+     * @param dir The directory for the fragments.
+     *
+     * @throws GeneratorException any error during loading or writing
+     */
+    public void generateFragments(Path dir) throws GeneratorException {
+        try {
+            stats.resetGeneration();
+            createTldSummaryDoc();
+
+            final long start = System.nanoTime();
+            Files.createDirectories(dir);
+            final Set<String> fileNames = new HashSet<>();
+            for (TaglibIndex index : taglibIndexes) {
+                writeFragment(index, dir, fileNames);
+            }
+            stats.record(Phase.FRAGMENTS, start, taglibIndexes.size());
+            outputSuccessMessage();
+        } catch (IOException | SAXException | TransformerFactoryConfigurationError
+                | FactoryConfigurationError | ParserConfigurationException
+                | TransformerException e) {
+            throw new GeneratorException(e);
+        }
+    }
+
+    /**
+     * Renders one page of the documentation from the tag libraries loaded with {@link #load()}.
+     * Only this page is rendered, nothing else is generated.
+     *
+     * @param path the path of the page, relative to the root of the documentation and separated
+     *             by {@code '/'}, e.g. {@code mytags/tld-summary.html}
+     * @param out  the stream to write the page to
+     *
+     * @return {@code true} if the page was rendered or {@code false} if there is no such page
+     *
+     * @throws GeneratorException any error during rendering
+     */
+    public boolean renderPage(String path, OutputStream out) throws GeneratorException {
+        if (summaryTld == null) {
+            throw new IllegalStateException("No tag libraries loaded");
+        }
+
+        try {
+            final int slash = path.indexOf('/');
+            if (slash == -1) {
+                if ("stylesheet.css".equals(path) || "search.html".equals(path)) {
+                    try (InputStream in = getResourceAsStream(RESOURCE_PATH + "/" + path)) {
+                        in.transferTo(out);
+                    }
+                    return true;
+                }
+                if (SearchIndex.PATH.equals(path)) {
+                    final SearchIndex index = new SearchIndex();
+                    for (TaglibIndex taglib : taglibIndexes) {
+                        if (taglibsByShortName.get(taglib.getShortName()) == taglib) {
+                            index.add(taglib);
+                        }
+                    }
+                    out.write(index.toScript());
+                    return true;
+                }
+                if (Arrays.asList(OVERVIEW_PAGES).contains(path)) {
+                    transformSummary(summaryTld, RESOURCE_PATH + "/" + path + ".xsl", null,
+                            new StreamResult(out));
+                    return true;
+                }
+                return false;
+            }
+
+            final String shortName = path.substring(0, slash);
+            final String page = path.substring(slash + 1);
+            final TaglibIndex index = taglibsByShortName.get(shortName);
+            if (index == null || page.indexOf('/') != -1) {
+                return false;
+            }
+
+            HashMap<String, String> parameters = new HashMap<>();
+            parameters.put("tlddoc-shortName", shortName);
+            if (Arrays.asList(TLD_PAGES).contains(page)) {
+                transformSummary(librarySource(index), RESOURCE_PATH + "/" + page + ".xsl",
+                        parameters, new StreamResult(out));
+                return true;
+            }
+            if (page.endsWith(".fn.html")) {
+                return renderFunction(index, page.substring(0, page.length() - 8),
+                        new StreamResult(out));
+            }
+            if (page.endsWith(".html")) {
+                return renderTag(index, page.substring(0, page.length() - 5),
+                        new StreamResult(out));
+            }
+            return false;
+        } catch (IOException | TransformerFactoryConfigurationError | TransformerException e) {
+            throw new GeneratorException(e);
+        }
+    }
+
+    /**
+     * Renders the page of one tag or tag file from the tag libraries loaded with {@link #load()}.
+     * Neither the overview nor any other page of the tag library is generated.
+     *
+     * @param shortName the short name of the tag library
+     * @param tagName   the name of the tag or tag file
+     * @param out       the writer to write the page to
+     *
+     * @return {@code true} if the page was rendered or {@code false} if there is no such tag
+     *
+     * @throws GeneratorException any error during rendering
+     */
+    public boolean renderTag(String shortName, String tagName, Writer out)
+            throws GeneratorException {
+
+        try {
+            final TaglibIndex index = getLoadedTaglib(shortName);
+            return index != null && renderTag(index, tagName, new StreamResult(out));
+        } catch (IOException | TransformerFactoryConfigurationError | TransformerException e) {
+            throw new GeneratorException(e);
+        }
+    }
+
+    /**
+     * Renders the page of one function from the tag libraries loaded with {@link #load()}.
+     * Neither the overview nor any other page of the tag library is generated.
+     *
+     * @param shortName    the short name of the tag library
+     * @param functionName the name of the function
+     * @param out          the writer to write the page to
+     *
+     * @return {@code true} if the page was rendered or {@code false} if there is no such function
+     *
+     * @throws GeneratorException any error during rendering
+     */
+    public boolean renderFunction(String shortName, String functionName, Writer out)
+            throws GeneratorException {
+
+        try {
+            final TaglibIndex index = getLoadedTaglib(shortName);
+            return index != null && renderFunction(index, functionName, new StreamResult(out));
+        } catch (IOException | TransformerFactoryConfigurationError | TransformerException e) {
+            throw new GeneratorException(e);
+        }
+    }
+
+    /**
+     * Returns the loaded tag library with the given short name.
+     *
+     * @param shortName the short name of the tag library
+     *
+     * @return the index of the tag library or {@code null} if there is no such tag library
+     *
+     * @throws IllegalStateException if no tag libraries were loaded
+     */
+    private TaglibIndex getLoadedTaglib(String shortName) {
+        if (summaryTld == null) {
+            throw new IllegalStateException("No tag libraries loaded");
+        }
+        return taglibsByShortName.get(shortName);
+    }
+
+    /**
+     * Renders the page of one tag or tag file of the given tag library.
+     *
+     * @param index   the index of the tag library
+     * @param tagName the name of the tag or tag file
+     * @param result  the result of the transformation
+     *
+     * @return {@code true} if the page was rendered or {@code false} if there is no such tag
+     *
+     * @throws IOException                          if an I/O error has occurred
+     * @throws TransformerFactoryConfigurationError Thrown in case of {@linkplain
+     * java.util.ServiceConfigurationError service configuration error} or if the implementation is
+     *                                              not available or cannot be instantiated.
+     * @throws TransformerException                 If an unrecoverable error occurs during the
+     *                                              course of the transformation.
+     */
+    private boolean renderTag(TaglibIndex index, String tagName, Result result)
+            throws IOException, TransformerFactoryConfigurationError, TransformerException {
+
+        if (!index.getTagsByName().containsKey(tagName)
+                && !index.getTagFilesByName().containsKey(tagName)) {
+            return false;
+        }
+
+        HashMap<String, String> parameters = new HashMap<>();
+        parameters.put("tlddoc-shortName", index.getShortName());
+        parameters.put("tlddoc-tagName", tagName);
+        transformSummary(librarySource(index), RESOURCE_PATH + "/tag.html.xsl", parameters,
+                result);
+        return true;
+    }
+
+    /**
+     * Renders the page of one function of the given tag library.
+     *
+     * @param index        the index of the tag library
+     * @param functionName the name of the function
+     * @param result       the result of the transformation
+     *
+     * @return {@code true} if the page was rendered or {@code false} if there is no such function
+     *
+     * @throws IOException                          if an I/O error has occurred
+     * @throws TransformerFactoryConfigurationError Thrown in case of {@linkplain
+     * java.util.ServiceConfigurationError service configuration error} or if the implementation is
+     *                                              not available or cannot be instantiated.
+     * @throws TransformerException                 If an unrecoverable error occurs during the
+     *                                              course of the transformation.
+     */
+    private boolean renderFunction(TaglibIndex index, String functionName, Result result)
+            throws IOException, TransformerFactoryConfigurationError, TransformerException {
+
+        if (!index.getFunctionsByName().containsKey(functionName)) {
+            return false;
+        }
+
+        HashMap<String, String> parameters = new HashMap<>();
+        parameters.put("tlddoc-shortName", index.getShortName());
+        parameters.put("tlddoc-functionName", functionName);
+        transformSummary(librarySource(index), RESOURCE_PATH + "/function.html.xsl", parameters,
+                result);
+        return true;
+    }
+
+    // //////////////////////////////////////////////////////////////////
+    /**
+     * Copies all static files to target directory.
+     *
+     * @throws IOException if an I/O error has occurred
+     */
+    private void copyStaticFiles() throws IOException {
+        copyResourceToFile("stylesheet.css", RESOURCE_PATH + "/stylesheet.css");
+        copyResourceToFile("search.html", RESOURCE_PATH + "/search.html");
+    }
+
+    /**
+     * Writes the search index, built while the pages of each tag library were generated.
+     *
+     * @throws IOException if an I/O error has occurred
+     */
+    private void writeSearchIndex() throws IOException {
+        final long start = System.nanoTime();
+        try (OutputStream out = outputSink.newOutputStream(SearchIndex.PATH)) {
+            out.write(searchIndex.toScript());
+        }
+        stats.record(Item.PAGE, SearchIndex.PATH, start);
+        listener().pageWritten(SearchIndex.PATH);
+    }
+
+    /**
+     * Creates a summary document, comprising all input TLDs. This document is later used as input
+     * into XSLT to generate all non-static output pages. Stores the result as a DOM tree in the
+     * summaryTLD attribute.
+     *
+     * @throws IOException                          if an I/O error has occurred
+     * @throws SAXException                         If any parse errors occur.
+     * @throws TransformerFactoryConfigurationError Thrown in case of {@linkplain
+     * java.util.ServiceConfigurationError service configuration error} or if the implementation is
+     *                                              not available or cannot be instantiated.
+     * @throws TransformerConfigurationException    Thrown if there are errors when parsing the
+     *                                              {@code Source} or it is not possible to create a
+     *                                              {@code Transformer} instance.
+     * @throws FactoryConfigurationError            in case of {@linkplain
+     * java.util.ServiceConfigurationError service configuration error} or if the implementation is
+     *                                              not available or cannot be instantiated.
+     * @throws ParserConfigurationException         if a DocumentBuilder cannot be created which
+     *                                              satisfies the configuration requested.
+     * @throws TransformerException                 If an unrecoverable error occurs during the
+     *                                              course of the transformation.
+     * @throws GeneratorException                   taglib is not valid
+     */
+    private void createTldSummaryDoc() throws IOException, SAXException,
+            TransformerFactoryConfigurationError, TransformerConfigurationException,
+            FactoryConfigurationError, ParserConfigurationException, TransformerException,
+            GeneratorException {
+
+        summaryTld = newSummaryDoc();
+        if (dumpStagesDirectory != null) {
+            Files.createDirectories(dumpStagesDirectory);
+        }
+        tldCache = newTldCache();
+
+        // Append each <taglib> element from each TLD:
+        listener().loadingStarted(tagLibraries.size());
+        taglibIndexes.clear();
+        taglibsByShortName.clear();
+        final int threadCount = Math.min(threads, tagLibraries.size());
+        if (threadCount <= 1) {
+            int number = 0;
+            for (final TagLibrary tagLibrary : tagLibraries) {
+                addTaglibIndex(mergeTagLibrary(prepareTagLibrary(tagLibrary,
+                        contents.remove(tagLibrary), ++number),
+                        summaryTld));
+            }
+        } else {
+            // Load in parallel, but merge in the original order
+            final ExecutorService executor = Executors.newFixedThreadPool(threadCount,
+                    runnable -> {
+                        final Thread thread = new Thread(runnable, "tlddoc-loader");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            try {
+                final List<Future<LoadedTagLibrary>> loading = new ArrayList<>();
+                for (final TagLibrary tagLibrary : tagLibraries) {
+                    final int number = loading.size() + 1;
+                    final TagLibraryContent content = contents.remove(tagLibrary);
+                    loading.add(executor.submit(() -> prepareTagLibrary(tagLibrary, content,
+                            number)));
+                }
+                for (Future<LoadedTagLibrary> loaded : loading) {
+                    addTaglibIndex(mergeTagLibrary(await(loaded), summaryTld));
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        // If debug enabled, output the resulting document, as a test:
+        if (Constants.DEBUG_INPUT_DOCUMENT) {
+            Transformer transformer = XmlSupport.newTransformer();
+            transformer.transform(new DOMSource(summaryTld),
+                    new StreamResult(System.out));
+        }
+    }
+
+    /**
+     * Loads, translates, populates and generates one tag library after the other. Each tag library
+     * is rendered from a summary document of its own, which is dropped afterwards. Only the summary
+     * index of the tag libraries is kept, from which the overview pages are generated at the end.
+     *
+     * @throws IOException                          if an I/O error has occurred
+     * @throws SAXException                         If any parse errors occur.
+     * @throws TransformerFactoryConfigurationError Thrown in case of {@linkplain
+     * java.util.ServiceConfigurationError service configuration error} or if the implementation is
+     *                                              not available or cannot be instantiated.
+     * @throws FactoryConfigurationError            in case of {@linkplain
+     * java.util.ServiceConfigurationError service configuration error} or if the implementation is
+     *                                              not available or cannot be instantiated.
+     * @throws ParserConfigurationException         if a DocumentBuilder cannot be created which
+     *                                              satisfies the configuration requested.
+     * @throws TransformerException                 If an unrecoverable error occurs during the
+     *                                              course of the transformation.
+     * @throws GeneratorException                   taglib is not valid or any error during
+     *                                              generation
+     */
+    private void generateStreaming() throws IOException, SAXException,
+            TransformerFactoryConfigurationError, FactoryConfigurationError,
+            ParserConfigurationException, TransformerException, GeneratorException {
+
+        final Document summaryIndex = newSummaryDoc();
+
+        // Nothing of a previous load() is kept; the summary index is not complete enough to
+        // render pages on demand
+        summaryTld = null;
+        taglibIndexes.clear();
+        taglibsByShortName.clear();
+        if (dumpStagesDirectory != null) {
+            Files.createDirectories(dumpStagesDirectory);
+        }
+        tldCache = newTldCache();
+
+        listener().loadingStarted(tagLibraries.size());
+        Map<String, TaglibIndex> shortNames = new HashMap<>();
+        int number = 0;
+        for (final TagLibrary tagLibrary : tagLibraries) {
+            final Document source = newSummaryDoc();
+            final TaglibIndex index = mergeTagLibrary(prepareTagLibrary(tagLibrary,
+                    contents.remove(tagLibrary), ++number), source);
+            if (index != null) {
+                summaryIndex.getDocumentElement().appendChild(index.copySummary(summaryIndex));
+
+                final long start = System.nanoTime();
+                final int pages = stats.getCount(Item.PAGE);
+                generateTldDetail(index, source, shortNames);
+                stats.record(Phase.TLD_DETAIL, start, stats.getCount(Item.PAGE) - pages);
+            }
+        }
+
+        final long start = System.nanoTime();
+        generateOverview(summaryIndex);
+        stats.record(Phase.OVERVIEW, start, OVERVIEW_PAGES.length);
+    }
+
+    /**
+     * Writes the fragment of the given tag library into the given directory.
+     *
+     * @param index     the index of the tag library
+     * @param dir       the directory for the fragments
+     * @param fileNames the file names of the fragments written so far, in lower case; the file
+     *                  name of this fragment is added
+     *
+     * @throws IOException                          if an I/O error has occurred
+     * @throws FactoryConfigurationError            in case of {@linkplain
+     * java.util.ServiceConfigurationError service configuration error} or if the implementation is
+     *                                              not available or cannot be instantiated.
+     * @throws ParserConfigurationException         if a DocumentBuilder cannot be created which
+     *                                              satisfies the configuration requested.
+     * @throws TransformerFactoryConfigurationError Thrown in case of {@linkplain
+     * java.util.ServiceConfigurationError service configuration error} or if the implementation is
+     *                                              not available or cannot be instantiated.
+     * @throws TransformerException                 If an unrecoverable error occurs during the
+     *                                              course of the transformation.
+     * @throws GeneratorException                   two tag libraries have the same short-name
+     */
+    private void writeFragment(TaglibIndex index, Path dir, Set<String> fileNames)
+            throws IOException, FactoryConfigurationError, ParserConfigurationException,
+            TransformerFactoryConfigurationError, TransformerException, GeneratorException {
+
+        final String shortName = index.getShortName();
+        final String fileName = shortName.replaceAll("[^A-Za-z0-9._-]", "_")
+                + Constants.FRAGMENT_EXTENSION;
+        if (!fileNames.add(fileName.toLowerCase(Locale.ROOT))) {
+            throw new GeneratorException("Two tag libraries exist with the same short-name '"
+                    + shortName + "'.  This is not yet supported.");
+        }
+        final String displayName = TaglibIndex.childValue(index.getTaglib(), "display-name");
+        listener().libraryGenerating(shortName, displayName == null ? shortName : displayName);
+
+        final Document fragment = XmlSupport.newDocument();
+        fragment.appendChild(fragment.createComment(" Tag library fragment written by TLDDoc "
+                + Version.VERSION + " "));
+        fragment.appendChild(fragment.importNode(index.getTaglib(), true));
+
+        final Transformer transformer = XmlSupport.newTransformer();
+        transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
+        try (OutputStream out = Files.newOutputStream(dir.resolve(fileName))) {
+            transformer.transform(new DOMSource(fragment), new StreamResult(out));
+        }
+    }
+
+    /**
+     * Creates the cache of upgraded TLDs, keyed by the upgrade stylesheets in use.
+     *
+     * @return the cache or {@code null} if not wanted
+     *
+     * @throws IOException if an I/O error has occurred
+     */
+    private TldCache newTldCache() throws IOException {
+        if (tldCacheDirectory == null) {
+            return null;
+        }
+
+        final List<byte[]> stylesheets = new ArrayList<>();
+        for (String stylesheet : UPGRADE_STYLESHEETS) {
+            try (InputStream in = getResourceAsStream(RESOURCE_PATH + "/" + stylesheet)) {
+                stylesheets.add(in.readAllBytes());
+            }
+        }
+        return new TldCache(tldCacheDirectory, tldCacheSize, stylesheets);
+    }
+
+    /**
+     * Adds the index of a tag library merged into the summary document.
+     *
+     * @param index the index of the tag library or {@code null} if it was skipped
+     */
+    private void addTaglibIndex(TaglibIndex index) {
+        if (index != null) {
+            taglibIndexes.add(index);
+            taglibsByShortName.putIfAbsent(index.getShortName(), index);
+        }
+    }
+
+    /**
+     * Loads, translates and populates the tag library. The tag library is closed afterwards. All
+     * callbacks to the listener are deferred until the tag library is
+     * {@linkplain #mergeTagLibrary(LoadedTagLibrary, Document) merged}, so this can be called for
+     * several tag libraries in parallel.
+     *
+     * @param library the tag library to load
+     * @param content the content read when the tag library was discovered or {@code null} if
+     *                not known, e.g. as the tag library was loaded before
+     * @param number  the number of the tag library, starting with {@code 1}
+     *
+     * @return the loaded tag library
+     *
+     * @throws IOException                          if an I/O error has occurred
+     * @throws SAXException                         If any parse errors occur.
+     * @throws TransformerFactoryConfigurationError Thrown in case of {@linkplain
+     * java.util.ServiceConfigurationError service configuration error} or if the implementation is
+     *                                              not available or cannot be instantiated.
+     * @throws FactoryConfigurationError            in case of {@linkplain
+     * java.util.ServiceConfigurationError service configuration error} or if the implementation is
+     *                                              not available or cannot be instantiated.
+     * @throws ParserConfigurationException         if a DocumentBuilder cannot be created which
+     *                                              satisfies the configuration requested.
+     * @throws TransformerException                 If an unrecoverable error occurs during the
+     *                                              course of the transformation.
+     */
+    private LoadedTagLibrary prepareTagLibrary(TagLibrary library, TagLibraryContent content,
+            int number)
+            throws IOException, SAXException, TransformerFactoryConfigurationError,
+            FactoryConfigurationError, ParserConfigurationException, TransformerException {
+
+        final DeferredGenerationListener events = new DeferredGenerationListener();
+
+        // to AutoClose internal files at TagLibrary-Implementations
+        try (TagLibrary tagLibrary = library) {
+            final TagLibraryLoadEvent event = new TagLibraryLoadEvent();
+            event.begin();
+            final long libraryStart = System.nanoTime();
+            final boolean normalized = tagLibrary.isNormalized();
+
+            // The stages are only seen if the TLD is upgraded
+            final TldCache cache = normalized || verbose || dumpStagesDirectory != null ? null
+                    : tldCache;
+            byte[] tld = content == null ? null : content.takeTld();
+            byte[] tldHash = content == null ? null : content.getTldHash();
+            if (content == null && cache != null) {
+                tld = tagLibrary.getTldBytes();
+                tldHash = tld == null ? null : TldCache.sha256().digest(tld);
+            }
+            final String key = cache == null || tld == null ? null : cache.key(tldHash);
+            Document doc = key == null ? null : getCachedTld(cache, key, events);
+            final boolean upgraded = normalized || doc != null;
+            if (doc == null) {
+                doc = tld == null ? tagLibrary.getTldDocument(XmlSupport.documentBuilder())
+                        : XmlSupport.documentBuilder().parse(new ByteArrayInputStream(tld));
+            }
+            long start = stats.record(Phase.LOAD, libraryStart, 1);
+
+            // Convert document to JSP 4.0 TLD, unless already done when writing the fragment or
+            // taken from the cache
+            if (!upgraded) {
+                doc = upgradeTld(doc, events, dumpStagesPrefix(tagLibrary, number));
+                if (key != null) {
+                    putCachedTld(cache, key, doc, events);
+                }
+                start = stats.record(Phase.UPGRADE, start, 1);
+            }
+
+            // If this tag library has no tags, no validators,
+            // and no functions, omit it
+            final Element element = doc.getDocumentElement();
+            TaglibIndex index = element == null ? null : new TaglibIndex(element);
+            if (index != null && !index.isEmpty()) {
+                // Populate the root element with extra information
+                if (!normalized) {
+                    populateTld(tagLibrary, doc, index, events);
+                    stats.record(Phase.POPULATE, start, 1);
+                }
+            } else {
+                index = null;
+            }
+            stats.record(Item.LIBRARY, tagLibrary.getPathDescription(), libraryStart);
+            event.end();
+            if (event.shouldCommit()) {
+                event.pathDescription = tagLibrary.getPathDescription();
+                event.bytes = tagLibrary.getTldSize();
+                event.commit();
+            }
+
+            return new LoadedTagLibrary(tagLibrary, index, events);
+        }
+    }
+
+    /**
+     * Returns the upgraded TLD from the cache. If the cache cannot be read for any reason, the TLD
+     * is upgraded again.
+     *
+     * @param cache    the cache of upgraded TLDs
+     * @param key      the key of the TLD
+     * @param listener the listener to warn
+     *
+     * @return the upgraded TLD or {@code null} if it is not cached
+     *
+     * @throws FactoryConfigurationError    in case of {@linkplain
+     * java.util.ServiceConfigurationError service configuration error} or if the implementation is
+     *                                      not available or cannot be instantiated.
+     * @throws ParserConfigurationException if a DocumentBuilder cannot be created which satisfies
+     *                                      the configuration requested.
+     */
+    private static Document getCachedTld(TldCache cache, String key, GenerationListener listener)
+            throws FactoryConfigurationError, ParserConfigurationException {
+
+        try {
+            return cache.get(key);
+        } catch (IOException | RuntimeException e) {
+            listener.warning("Could not read from the TLD cache.", e);
+            return null;
+        }
+    }
+
+    /**
+     * Adds the upgraded TLD to the cache. If the cache cannot be written for any reason, the TLD is
+     * upgraded again next time.
+     *
+     * @param cache    the cache of upgraded TLDs
+     * @param key      the key of the TLD
+     * @param doc      the upgraded TLD
+     * @param listener the listener to warn
+     *
+     * @throws TransformerFactoryConfigurationError Thrown in case of {@linkplain
+     * java.util.ServiceConfigurationError service configuration error} or if the implementation is
+     *                                              not available or cannot be instantiated.
+     */
+    private static void putCachedTld(TldCache cache, String key, Document doc,
+            GenerationListener listener) throws TransformerFactoryConfigurationError {
+
+        try {
+            cache.put(key, doc);
+        } catch (IOException | TransformerException | RuntimeException e) {
+            listener.warning("Could not write to the TLD cache.", e);
+        }
     }
 
     /**
-     * Returns {@code true} if the generator is in verbose mode or {@code false} if not.
+     * Notifies the listener of the deferred callbacks of the loaded tag library and appends it to
+     * the root element of the given summary document. Tag libraries without tags, validators and
+     * functions are skipped.
      *
-     * @return {@code True} if all tld-conversions output is to be produced, {@code false}
-     *         otherwise.
+     * @param loaded  the loaded tag library
+     * @param summary the summary document to append the tag library to
+     *
+     * @return the index of the appended tag library or {@code null} if it was skipped
+     *
+     * @throws GeneratorException taglib is not valid
      */
-    public boolean isVerbose() {
-        return verbose;
+    private TaglibIndex mergeTagLibrary(LoadedTagLibrary loaded, Document summary)
+            throws GeneratorException {
+
+        final TagLibrary tagLibrary = loaded.tagLibrary;
+        loaded.events.replay(listener());
+
+        TaglibIndex index = loaded.index;
+        if (index == null) {
+            listener().librarySkipped(tagLibrary);
+            return null;
+        }
+
+        // Move the populated tree into the summary; the index stays valid as long
+        // as the nodes are adopted and not copied.
+        final Element element = index.getTaglib();
+        Element taglibNode = (Element) summary.adoptNode(element);
+        if (taglibNode == null) {
+            taglibNode = (Element) summary.importNode(element, true);
+            index = new TaglibIndex(taglibNode);
+        }
+        if (!(taglibNode.getNamespaceURI().equals(Constants.NS_JAKARTAEE)
+                || taglibNode.getNamespaceURI().equals(Constants.NS_JAVAEE)
+                || taglibNode.getNamespaceURI().equals(Constants.NS_J2EE))) {
+            throw new GeneratorException("Error: "
+                    + tagLibrary.getPathDescription()
+                    + " does not have xmlns=\"" + Constants.NS_JAKARTAEE + "\"");
+        }
+        if (!taglibNode.getLocalName().equals("taglib")) {
+            throw new GeneratorException("Error: "
+                    + tagLibrary.getPathDescription()
+                    + " does not have <taglib> as root.");
+        }
+        summary.getDocumentElement().appendChild(taglibNode);
+        index.setLocations(locations(tagLibrary));
+        listener().libraryLoaded(tagLibrary, index.getShortName());
+
+        return index;
     }
 
     /**
-     * Commences documentation generation.
+     * Waits for the tag library loaded by another thread. Any error of the loading is rethrown as
+     * it is.
      *
-     * @throws GeneratorException any error during generation
+     * @param loading the loading tag library
+     *
+     * @return the loaded tag library
+     *
+     * @throws IOException                  if an I/O error has occurred
+     * @throws SAXException                 If any parse errors occur.
+     * @throws ParserConfigurationException if a DocumentBuilder cannot be created which satisfies
+     *                                      the configuration requested.
+     * @throws TransformerException         If an unrecoverable error occurs during the course of
+     *                                      the transformation.
+     * @throws GeneratorException           if the waiting thread was interrupted
      */
-    public void generate() throws GeneratorException {
-        try {
-            Files.createDirectories(outputDirectory);
+    private static LoadedTagLibrary await(Future<LoadedTagLibrary> loading) throws IOException,
+            SAXException, ParserConfigurationException, TransformerException,
+            GeneratorException {
 
-            copyStaticFiles();
-            createTldSummaryDoc();
-            generateOverview();
-            generateTldDetail();
-            outputSuccessMessage();
-        } catch (IOException | SAXException | TransformerFactoryConfigurationError
-                | FactoryConfigurationError | ParserConfigurationException
-                | TransformerException e) {
+        try {
+            return loading.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
             throw new GeneratorException(e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof SAXException) {
+                throw (SAXException) cause;
+            } else if (cause instanceof ParserConfigurationException) {
+                throw (ParserConfigurationException) cause;
+            } else if (cause instanceof TransformerException) {
+                throw (TransformerException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new GeneratorException(cause);
         }
     }
 
-    // //////////////////////////////////////////////////////////////////
     /**
-     * Copies all static files to target directory.
+     * Creates a new, empty summary document: the root {@code <tlds>} element with the
+     * configuration but without any tag library.
      *
-     * @throws IOException if an I/O error has occurred
-     */
-    private void copyStaticFiles() throws IOException {
-        copyResourceToFile(outputDirectory.resolve("stylesheet.css"),
-                RESOURCE_PATH + "/stylesheet.css");
-    }
-
-    /**
-     * Creates a summary document, comprising all input TLDs. This document is later used as input
-     * into XSLT to generate all non-static output pages. Stores the result as a DOM tree in the
-     * summaryTLD attribute.
+     * @return the new summary document
      *
-     * @throws IOException                          if an I/O error has occurred
-     * @throws SAXException                         If any parse errors occur.
-     * @throws TransformerFactoryConfigurationError Thrown in case of {@linkplain
-     * java.util.ServiceConfigurationError service configuration error} or if the implementation is
-     *                                              not available or cannot be instantiated.
-     * @throws TransformerConfigurationException    Thrown if there are errors when parsing the
-     *                                              {@code Source} or it is not possible to create a
-     *                                              {@code Transformer} instance.
-     * @throws FactoryConfigurationError            in case of {@linkplain
+     * @throws FactoryConfigurationError    in case of {@linkplain
      * java.util.ServiceConfigurationError service configuration error} or if the implementation is
-     *                                              not available or cannot be instantiated.
-     * @throws ParserConfigurationException         if a DocumentBuilder cannot be created which
-     *                                              satisfies the configuration requested.
-     * @throws TransformerException                 If an unrecoverable error occurs during the
-     *                                              course of the transformation.
-     * @throws GeneratorException                   taglib is not valid
+     *                                      not available or cannot be instantiated.
+     * @throws ParserConfigurationException if a DocumentBuilder cannot be created which satisfies
+     *                                      the configuration requested.
      */
-    private void createTldSummaryDoc() throws IOException, SAXException,
-            TransformerFactoryConfigurationError, TransformerConfigurationException,
-            FactoryConfigurationError, ParserConfigurationException, TransformerException,
-            GeneratorException {
+    private Document newSummaryDoc() throws FactoryConfigurationError,
+            ParserConfigurationException {
 
-        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-        factory.setValidating(false);
-        factory.setNamespaceAware(true);
-        factory.setExpandEntityReferences(false);
-        DocumentBuilder documentBuilder = factory.newDocumentBuilder();
-        documentBuilder.setEntityResolver((publicId, systemId)
-                -> new InputSource(new CharArrayReader(new char[0]))
-        );
-        summaryTld = documentBuilder.newDocument();
+        final Document summary = XmlSupport.newDocument();
 
         // Create root <tlds> element:
-        Element rootElement = summaryTld.createElementNS(Constants.NS_JAKARTAEE, "tlds");
-        summaryTld.appendChild(rootElement);
+        Element rootElement = summary.createElementNS(Constants.NS_JAKARTAEE, "tlds");
+        summary.appendChild(rootElement);
         // JDK 1.4 does not add xmlns for some reason - add it manually:
         rootElement.setAttributeNS("http://www.w3.org/2000/xmlns/", "xmlns",
                 Constants.NS_JAKARTAEE);
 
         // Create configuration element:
-        Element configElement = summaryTld.createElementNS(Constants.NS_JAKARTAEE, "config");
+        Element configElement = summary.createElementNS(Constants.NS_JAKARTAEE, "config");
         rootElement.appendChild(configElement);
 
-        Element windowTitleElement = summaryTld.createElementNS(Constants.NS_JAKARTAEE,
+        Element windowTitleElement = summary.createElementNS(Constants.NS_JAKARTAEE,
                 "window-title");
-        windowTitleElement.appendChild(summaryTld.createTextNode(this.windowTitle));
+        windowTitleElement.appendChild(summary.createTextNode(this.windowTitle));
         configElement.appendChild(windowTitleElement);
 
-        Element docTitleElement = summaryTld.createElementNS(Constants.NS_JAKARTAEE, "doc-title");
-        docTitleElement.appendChild(summaryTld.createTextNode(this.docTitle));
+        Element docTitleElement = summary.createElementNS(Constants.NS_JAKARTAEE, "doc-title");
+        docTitleElement.appendChild(summary.createTextNode(this.docTitle));
         configElement.appendChild(docTitleElement);
 
-        // Append each <taglib> element from each TLD:
-        println("Loading and translating " + tagLibraries.size()
-                + " Tag Librar"
-                + ((tagLibraries.size() == 1) ? "y" : "ies")
-                + "...");
-        for (final TagLibrary tagLibrary_ : tagLibraries) {
-            // to AutoClose internal files at TagLibrary-Implementations
-            try (TagLibrary tagLibrary = tagLibrary_) {
-                Document doc = tagLibrary.getTldDocument(documentBuilder);
-
-                // Convert document to JSP 4.0 TLD
-                doc = upgradeTld(doc);
-
-                // If this tag library has no tags, no validators,
-                // and no functions, omit it
-                final Element element = doc.getDocumentElement();
-                int numTags = element == null ? 0
-                        : element.getElementsByTagNameNS("*", "tag").getLength()
-                        + element.getElementsByTagNameNS("*", "tag-file").getLength()
-                        + element.getElementsByTagNameNS("*", "validator").getLength()
-                        + element.getElementsByTagNameNS("*", "function").getLength();
-                if (numTags > 0) {
-                    // Populate the root element with extra information
-                    populateTld(tagLibrary, doc);
-
-                    Element taglibNode = (Element) summaryTld.importNode(
-                            doc.getDocumentElement(), true);
-                    if (!(taglibNode.getNamespaceURI().equals(Constants.NS_JAKARTAEE)
-                            || taglibNode.getNamespaceURI().equals(Constants.NS_JAVAEE)
-                            || taglibNode.getNamespaceURI().equals(Constants.NS_J2EE))) {
-                        throw new GeneratorException("Error: "
-                                + tagLibrary.getPathDescription()
-                                + " does not have xmlns=\"" + Constants.NS_JAKARTAEE + "\"");
-                    }
-                    if (!taglibNode.getLocalName().equals("taglib")) {
-                        throw new GeneratorException("Error: "
-                                + tagLibrary.getPathDescription()
-                                + " does not have <taglib> as root.");
-                    }
-                    rootElement.appendChild(taglibNode);
-                }
-            }
-        }
+        return summary;
+    }
 
-        // If debug enabled, output the resulting document, as a test:
-        if (Constants.DEBUG_INPUT_DOCUMENT) {
-            Transformer transformer
-                    = TransformerFactory.newInstance().newTransformer();
-            transformer.transform(new DOMSource(summaryTld),
-                    new StreamResult(System.out));
+    /**
+     * Creates a summary document holding only the given tag library, copied from the summary
+     * document of all tag libraries. The pages of a tag library only need the configuration and
+     * the tag library itself, and a smaller source document is converted faster into the internal
+     * representation of the XSLT processor.
+     *
+     * @param index the index of the tag library
+     *
+     * @return the new summary document of the tag library
+     *
+     * @throws FactoryConfigurationError    in case of {@linkplain
+     * java.util.ServiceConfigurationError service configuration error} or if the implementation is
+     *                                      not available or cannot be instantiated.
+     * @throws ParserConfigurationException if a DocumentBuilder cannot be created which satisfies
+     *                                      the configuration requested.
+     */
+    private Document newLibrarySource(TaglibIndex index) throws FactoryConfigurationError,
+            ParserConfigurationException {
+
+        final Document source = XmlSupport.newDocument();
+        final Element rootElement = summaryTld.getDocumentElement();
+
+        final Node sourceRoot = source.appendChild(source.importNode(rootElement, false));
+        sourceRoot.appendChild(source.importNode(TaglibIndex.child(rootElement, "config"), true));
+        sourceRoot.appendChild(source.importNode(index.getTaglib(), true));
+        return source;
+    }
+
+    /**
+     * Returns the summary document holding only the given tag library, to render its pages on
+     * demand. The document is created on first use and kept as long as memory permits.
+     *
+     * @param index the index of the tag library
+     *
+     * @return the summary document of the tag library
+     *
+     * @throws TransformerException if a DocumentBuilder cannot be created
+     */
+    private Document librarySource(TaglibIndex index) throws TransformerException {
+        Document source = index.getSource();
+        if (source == null) {
+            try {
+                source = newLibrarySource(index);
+            } catch (FactoryConfigurationError | ParserConfigurationException e) {
+                throw new TransformerException(e);
+            }
+            index.setSource(source);
         }
+        return source;
     }
 
     /**
      * Converts the given TLD to a JSP 4.0 TLD.
      *
-     * @param doc the given TLD
+     * @param doc        the given TLD
+     * @param listener   the listener to notify of each conversion
+     * @param dumpPrefix the file name prefix to write each stage with or {@code null} if the stages
+     *                   are not wanted
      *
      * @return the converted to JSP 4.0 TLD
      *
+     * @throws IOException                          if an I/O error has occurred
      * @throws TransformerFactoryConfigurationError Thrown in case of {@linkplain
      * java.util.ServiceConfigurationError service configuration error} or if the implementation is
      *                                              not available or cannot be instantiated.
@@ -587,57 +1799,63 @@ public class TldDocGenerator {
      * @throws TransformerException                 If an unrecoverable error occurs during the
      *                                              course of the transformation.
      */
-    private Document upgradeTld(Document doc) throws
+    private Document upgradeTld(Document doc, GenerationListener listener, String dumpPrefix)
+            throws IOException,
             TransformerFactoryConfigurationError, TransformerConfigurationException,
             FactoryConfigurationError, ParserConfigurationException, TransformerException {
 
         Element root = doc.getDocumentElement();
 
-        // We use getElementsByTagName instead of getElementsByTagNameNS
-        // here since JSP 1.1 TLDs have no namespace.
-        if (root.getElementsByTagName("jspversion").getLength() > 0) {
+        // JSP 1.1 TLDs have no namespace, the lookup ignores it.
+        if (TaglibIndex.child(root, "jspversion") != null) {
             removeNameSpace(doc, root);
 
             // JSP 1.1 TLD - convert to JSP 1.2 TLD first.
-            doc = convertTld(doc, RESOURCE_PATH + "/tld1_1-tld1_2.xsl");
+            doc = convertTld(doc, RESOURCE_PATH + "/tld1_1-tld1_2.xsl", "1.1", listener,
+                    dumpPrefix);
             root = doc.getDocumentElement();
         }
 
-        // We use getElementsByTagName instead of getElementsByTagNameNS
-        // here since JSP 1.2 TLDs have no namespace.
-        if (root.getElementsByTagName("jsp-version").getLength() > 0) {
+        // JSP 1.2 TLDs have no namespace, the lookup ignores it.
+        if (TaglibIndex.child(root, "jsp-version") != null) {
             removeNameSpace(doc, root);
 
             // JSP 1.2 TLD - convert to JSP 2.0 TLD first
-            doc = convertTld(doc, RESOURCE_PATH + "/tld1_2-tld2_0.xsl");
+            doc = convertTld(doc, RESOURCE_PATH + "/tld1_2-tld2_0.xsl", "1.2", listener,
+                    dumpPrefix);
             root = doc.getDocumentElement();
         }
 
         if ("2.0".equals(root.getAttribute("version"))) {
             // JSP 2.0 TLD - convert to JSP 2.1 TLD first
-            doc = convertTld(doc, RESOURCE_PATH + "/tld2_0-tld2_1.xsl");
+            doc = convertTld(doc, RESOURCE_PATH + "/tld2_0-tld2_1.xsl", "2.0", listener,
+                    dumpPrefix);
             root = doc.getDocumentElement();
         }
 
         if ("2.1".equals(root.getAttribute("version"))) {
             // JSP 2.1 TLD - convert to JSP 3.0 TLD first
-            doc = convertTld(doc, RESOURCE_PATH + "/tld2_1-tld3_0.xsl");
+            doc = convertTld(doc, RESOURCE_PATH + "/tld2_1-tld3_0.xsl", "2.1", listener,
+                    dumpPrefix);
             root = doc.getDocumentElement();
         }
 
         if ("3.0".equals(root.getAttribute("version"))) {
             // JSP 3.0 TLD - convert to JSP 3.1 TLD first
-            doc = convertTld(doc, RESOURCE_PATH + "/tld3_0-tld3_1.xsl");
+            doc = convertTld(doc, RESOURCE_PATH + "/tld3_0-tld3_1.xsl", "3.0", listener,
+                    dumpPrefix);
             root = doc.getDocumentElement();
         }
 
         if ("3.1".equals(root.getAttribute("version"))) {
             // JSP 3.1 TLD - convert to JSP 4.0 TLD first
-            doc = convertTld(doc, RESOURCE_PATH + "/tld3_1-tld4_0.xsl");
+            doc = convertTld(doc, RESOURCE_PATH + "/tld3_1-tld4_0.xsl", "3.1", listener,
+                    dumpPrefix);
         }
 
         // Final conversion to remove unwanted elements
-        doc = convertTld(doc, RESOURCE_PATH + "/tld4_0-tld4_0.xsl");
+        doc = convertTld(doc, RESOURCE_PATH + "/tld4_0-tld4_0.xsl", "4.0", listener,
+                dumpPrefix);
 
         // We should now have a JSP 4.0 TLD in doc.
         return doc;
@@ -680,11 +1898,16 @@ public class TldDocGenerator {
     /**
      * Converts the given TLD using the given stylesheet.
      *
-     * @param doc        the given TLD
-     * @param stylesheet the given stylesheet
+     * @param doc          the given TLD
+     * @param stylesheet   the given stylesheet
+     * @param inputVersion the version of the given TLD
+     * @param listener     the listener to notify of the conversion
+     * @param dumpPrefix   the file name prefix to write the converted TLD with or {@code null} if
+     *                     it is not wanted
      *
      * @return the converted TLD
      *
+     * @throws IOException                          if an I/O error has occurred
      * @throws TransformerFactoryConfigurationError Thrown in case of {@linkplain
      * java.util.ServiceConfigurationError service configuration error} or if the implementation is
      *                                              not available or cannot be instantiated.
@@ -699,41 +1922,119 @@ public class TldDocGenerator {
      * @throws TransformerException                 If an unrecoverable error occurs during the
      *                                              course of the transformation.
      */
-    private Document convertTld(Document doc, String stylesheet) throws
+    private Document convertTld(Document doc, String stylesheet, String inputVersion,
+            GenerationListener listener, String dumpPrefix) throws IOException,
             TransformerFactoryConfigurationError, TransformerConfigurationException,
             FactoryConfigurationError, ParserConfigurationException, TransformerException {
 
-        InputStream xsl = getResourceAsStream(stylesheet);
-        Transformer transformer = TransformerFactory.newInstance().newTransformer(
-                new StreamSource(xsl));
-        Document result = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
-        transformer.transform(new DOMSource(doc), new DOMResult(result));
+        final ConvertTldEvent event = new ConvertTldEvent();
+        event.begin();
+        Transformer transformer = newTransformer(stylesheet);
+        Document result = XmlSupport.newDocument();
+        final StringWriter sw = isVerbose() && !quiet ? new StringWriter() : null;
+        if (sw == null && dumpPrefix == null) {
+            transformer.transform(new DOMSource(doc), new DOMResult(result));
+        } else {
+            // Tee the output of the transformation, so it runs only once
+            final String stage = stylesheet.substring(stylesheet.lastIndexOf('/') + 1,
+                    stylesheet.length() - ".xsl".length());
+            try (OutputStream dump = dumpPrefix == null ? null : Files.newOutputStream(
+                    dumpStagesDirectory.resolve(dumpPrefix + "-" + stage + ".xml"))) {
+                final TransformerHandler builder = XmlSupport.newTransformerHandler();
+                builder.setResult(new DOMResult(result));
+                ContentHandler handler = builder;
+                if (sw != null) {
+                    handler = new TeeContentHandler(handler,
+                            newSerializer(transformer, new StreamResult(sw)));
+                }
+                if (dump != null) {
+                    handler = new TeeContentHandler(handler,
+                            newSerializer(transformer, new StreamResult(dump)));
+                }
+                final SAXResult tee = new SAXResult(handler);
+                tee.setLexicalHandler((LexicalHandler) handler);
+                transformer.transform(new DOMSource(doc), tee);
+            }
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.stylesheet = stylesheet;
+            event.inputVersion = inputVersion;
+            event.commit();
+        }
 
-        if (isVerbose()) {
-            StringWriter sw = new StringWriter();
-            sw
-                    .append(stylesheet).append(":\n")
-                    .append("-".repeat(stylesheet.length() + 1)).append('\n');
-            transformer.transform(new DOMSource(doc), new StreamResult(sw));
-            println(sw.toString());
+        if (sw != null) {
+            listener.tldConverted(stylesheet, sw.toString());
         }
 
         return result;
     }
 
+    /**
+     * Creates a handler serializing the output of the given transformer to the given result,
+     * using the output properties of the transformer.
+     *
+     * @param transformer the transformer whose output is to be serialized
+     * @param result      the result to serialize to
+     *
+     * @return the new handler
+     *
+     * @throws TransformerFactoryConfigurationError Thrown in case of {@linkplain
+     * java.util.ServiceConfigurationError service configuration error} or if the implementation is
+     *                                              not available or cannot be instantiated.
+     * @throws TransformerConfigurationException    When it is not possible to create a
+     *                                              {@code TransformerHandler} instance.
+     */
+    private static TransformerHandler newSerializer(Transformer transformer, Result result)
+            throws TransformerFactoryConfigurationError, TransformerConfigurationException {
+
+        final TransformerHandler serializer = XmlSupport.newTransformerHandler();
+        serializer.getTransformer().setOutputProperties(transformer.getOutputProperties());
+        serializer.setResult(result);
+        return serializer;
+    }
+
+    /**
+     * Returns the file name prefix to write the upgrade stages of the tag library with, made of
+     * the number and the file name of the tag library.
+     *
+     * @param tagLibrary the tag library
+     * @param number     the number of the tag library
+     *
+     * @return the file name prefix or {@code null} if the upgrade stages are not wanted
+     */
+    private String dumpStagesPrefix(TagLibrary tagLibrary, int number) {
+        if (dumpStagesDirectory == null) {
+            return null;
+        }
+
+        // Directories inside archives end with a separator
+        final String path = tagLibrary.getPathDescription().replaceAll("[/\\\\!]+$", "");
+        int start = 0;
+        for (char separator : new char[] {'/', '\\', '!'}) {
+            start = Math.max(start, path.lastIndexOf(separator) + 1);
+        }
+        return String.format(Locale.ROOT, "%03d-%s", number,
+                path.substring(start).replaceAll("[^A-Za-z0-9._-]", "_"));
+    }
+
     /**
      * Populates the root element with any additional information needed before adding this to our
      * tree.
      *
      * @param tagLibrary The tag library being populated
      * @param doc        The TLD DOM to populate.
+     * @param index      The index of the TLD DOM to populate.
+     * @param events     Defers the callbacks until the TLD is merged into the summary
      */
-    private void populateTld(TagLibrary tagLibrary, Document doc) {
-        Element root = doc.getDocumentElement();
-
-        checkOrAddShortName(tagLibrary, doc, root);
-        checkOrAddAttributeType(doc, root);
-        populateTagFileDetails(tagLibrary, doc, root);
+    private void populateTld(TagLibrary tagLibrary, Document doc, TaglibIndex index,
+            DeferredGenerationListener events) {
+        Element root = index.getTaglib();
+
+        // Substitute short-names are numbered in the order of the tag libraries
+        events.defer(l -> checkOrAddShortName(tagLibrary, doc, root, l));
+        checkOrAddAttributeType(doc, index);
+        populateTagFileDetails(tagLibrary, doc, index, events);
     }
 
     /**
@@ -742,27 +2043,34 @@ public class TldDocGenerator {
      *
      * @param tagLibrary The tag library being populated
      * @param doc        The document we're populating
-     * @param root       The root element of the TLD DOM being populated.
+     * @param index      The index of the TLD DOM being populated.
+     * @param listener   The listener to notify of each tag file and each problem
      */
-    private void populateTagFileDetails(TagLibrary tagLibrary, Document doc, Element root) {
-        NodeList tagFileNodes = root.getElementsByTagNameNS("*", "tag-file");
-        for (int i = 0; i < tagFileNodes.getLength(); i++) {
-            Element tagFileNode = (Element) tagFileNodes.item(i);
-            String path = findElementValue(tagFileNode, "path");
+    private void populateTagFileDetails(TagLibrary tagLibrary, Document doc, TaglibIndex index,
+            GenerationListener listener) {
+        for (Element tagFileNode : index.getTagFiles()) {
+            String path = TaglibIndex.childValue(tagFileNode, "path");
             if (path == null) {
-                println("WARNING: "
-                        + tagLibrary.getPathDescription()
-                        + " contains a tag-file element with no path.  Skipping.");
+                listener.warning(tagLibrary.getPathDescription()
+                        + " contains a tag-file element with no path.  Skipping.", null);
             } else {
                 try (InputStream tagFileIn = tagLibrary.getResource(path)) {
                     if (tagFileIn == null) {
-                        println("WARNING: Could not find tag file '"
+                        listener.warning("Could not find tag file '"
                                 + path + "' for tag library "
                                 + tagLibrary.getPathDescription()
-                                + ".  Data will be incomplete for this tag.");
+                                + ".  Data will be incomplete for this tag.", null);
                     } else {
-                        println("Parsing tag file: " + path);
+                        final long start = System.nanoTime();
+                        final TagFileParseEvent event = new TagFileParseEvent();
+                        event.begin();
                         TagFile tagFile = TagFile.parse(tagFileIn);
+                        event.end();
+                        if (event.shouldCommit()) {
+                            event.path = path;
+                            event.commit();
+                        }
+                        listener.tagFileParsed(tagLibrary, path);
                         for (Directive directive : tagFile.getDirectives()) {
                             String name = directive.getDirectiveName();
                             switch (name) {
@@ -785,19 +2093,18 @@ public class TldDocGenerator {
 
                         populateTagFileDetailsTagDefaults(tagFileNode, doc,
                                 path);
+                        stats.record(Item.TAG_FILE, path, start);
                     }
                 } catch (IOException e) {
-                    println("WARNING: Could not read tag file '"
+                    listener.warning("Could not read tag file '"
                             + path + "' for tag library "
                             + tagLibrary.getPathDescription()
-                            + ".  Data will be incomplete for this tag."
-                            + "  Reason: " + e.getMessage());
+                            + ".  Data will be incomplete for this tag.", e);
                 } catch (ParseException e) {
-                    println("WARNING: Could not parse tag file '"
+                    listener.warning("Could not parse tag file '"
                             + path + "' for tag library "
                             + tagLibrary.getPathDescription()
-                            + ".  Data will be incomplete for this tag."
-                            + "  Reason: " + e.getMessage());
+                            + ".  Data will be incomplete for this tag.", e);
                 }
             }
         }
@@ -827,13 +2134,10 @@ public class TldDocGenerator {
                 tagFileNode.appendChild(element);
             } else if (name.equals("small-icon")
                     || name.equals("large-icon")) {
-                NodeList icons = tagFileNode.getElementsByTagNameNS("*", "icon");
-                Element icon;
-                if (icons.getLength() == 0) {
+                Element icon = TaglibIndex.child(tagFileNode, "icon");
+                if (icon == null) {
                     icon = doc.createElementNS(Constants.NS_JAKARTAEE, "icon");
                     tagFileNode.appendChild(icon);
-                } else {
-                    icon = (Element) icons.item(0);
                 }
                 element = doc.createElementNS(Constants.NS_JAKARTAEE, name);
                 element.appendChild(doc.createTextNode(value));
@@ -871,7 +2175,7 @@ public class TldDocGenerator {
      */
     private void populateDefault(Document doc, Element parent, String tagName,
             String defaultValue) {
-        if (findElementValue(parent, tagName) == null) {
+        if (TaglibIndex.childValue(parent, tagName) == null) {
             Element element = doc.createElementNS(Constants.NS_JAKARTAEE, tagName);
             element.appendChild(doc.createTextNode(defaultValue));
             parent.appendChild(element);
@@ -953,7 +2257,7 @@ public class TldDocGenerator {
         // Default is String if this is not a fragment attribute, or
         // javax.servlet.jsp.tagext.JspFragment if this is a fragment
         // attribute.
-        String fragmentValue = findElementValue(attributeNode, "fragment");
+        String fragmentValue = TaglibIndex.childValue(attributeNode, "fragment");
         boolean fragment = !(fragmentValue == null
                 || fragmentValue.equalsIgnoreCase("false"));
         populateDefault(doc, attributeNode, "type",
@@ -1001,20 +2305,20 @@ public class TldDocGenerator {
      * @param tagLibrary The tag library being populated
      * @param doc        The TLD DOM to populate.
      * @param root       The root element of the TLD DOM being populated.
+     * @param listener   The listener to warn
      */
     private void checkOrAddShortName(TagLibrary tagLibrary, Document doc,
-            Element root) {
-        if (root.getElementsByTagNameNS("*", "short-name").getLength() == 0) {
+            Element root, GenerationListener listener) {
+        if (TaglibIndex.child(root, "short-name") == null) {
             String prefix = "prefix" + substitutePrefix;
             substitutePrefix++;
             Element shortName = doc.createElementNS(Constants.NS_JAKARTAEE,
                     "short-name");
             shortName.appendChild(doc.createTextNode(prefix));
             root.appendChild(shortName);
-            println("WARNING: "
-                    + tagLibrary.getPathDescription()
+            listener.warning(tagLibrary.getPathDescription()
                     + " is missing a short-name element.  Using "
-                    + prefix + ".");
+                    + prefix + ".", null);
         }
     }
 
@@ -1023,24 +2327,19 @@ public class TldDocGenerator {
      * XSLT transform to do since the default is different depending on whether it is a fragment
      * attribute or not.
      *
-     * @param doc  The TLD DOM to populate.
-     * @param root The root element of the TLD DOM being populated.
-     */
-    private void checkOrAddAttributeType(Document doc, Element root) {
-        NodeList tagNodes = root.getElementsByTagNameNS("*", "tag");
-        for (int i = 0; i < tagNodes.getLength(); i++) {
-            Element tagElement = (Element) tagNodes.item(i);
-            NodeList attributeNodes
-                    = tagElement.getElementsByTagNameNS("*", "attribute");
-            for (int j = 0; j < attributeNodes.getLength(); j++) {
-                Element attributeElement = (Element) attributeNodes.item(j);
+     * @param doc   The TLD DOM to populate.
+     * @param index The index of the TLD DOM being populated.
+     */
+    private void checkOrAddAttributeType(Document doc, TaglibIndex index) {
+        for (Element tagElement : index.getTags()) {
+            for (Element attributeElement : TaglibIndex.children(tagElement, "attribute")) {
                 if (attributeElement.getElementsByTagNameNS("*",
                         "type").getLength() == 0) {
                     // No attribute type specified.
                     String defaultType = "java.lang.String";
 
                     // Check if there is a fragment element set to true:
-                    String fragment = findElementValue(attributeElement,
+                    String fragment = TaglibIndex.childValue(attributeElement,
                             "fragment");
                     if (fragment != null
                             && (fragment.trim().equalsIgnoreCase("true")
@@ -1062,6 +2361,9 @@ public class TldDocGenerator {
     /**
      * Generates all overview files, summarizing all TLDs.
      *
+     * @param source the summary document of all TLDs
+     *
+     * @throws IOException                          if an I/O error has occurred
      * @throws TransformerFactoryConfigurationError Thrown in case of {@linkplain
      * java.util.ServiceConfigurationError service configuration error} or if the implementation is
      *                                              not available or cannot be instantiated.
@@ -1071,81 +2373,88 @@ public class TldDocGenerator {
      * @throws TransformerException                 If an unrecoverable error occurs during the
      *                                              course of the transformation.
      */
-    private void generateOverview() throws TransformerFactoryConfigurationError,
-            TransformerConfigurationException, TransformerException {
+    private void generateOverview(Document source) throws IOException,
+            TransformerFactoryConfigurationError, TransformerConfigurationException,
+            TransformerException {
+
+        for (String page : OVERVIEW_PAGES) {
+            generatePage(source, page, RESOURCE_PATH + "/" + page + ".xsl");
+        }
+    }
+
+    /**
+     * Generates all the detail folders for each TLD. The pages of each TLD are rendered from a
+     * summary document holding only this TLD, as the XSLT processor converts the whole source
+     * document into its internal representation for each page.
+     *
+     * @throws IOException                  if an I/O error has occurred
+     * @throws TransformerException         If an unrecoverable error occurs during the course of
+     *                                      the transformation.
+     * @throws GeneratorException           any error during generation
+     * @throws FactoryConfigurationError    in case of {@linkplain
+     * java.util.ServiceConfigurationError service configuration error} or if the implementation is
+     *                                      not available or cannot be instantiated.
+     * @throws ParserConfigurationException if a DocumentBuilder cannot be created which satisfies
+     *                                      the configuration requested.
+     */
+    private void generateTldDetail() throws IOException, TransformerException, GeneratorException,
+            FactoryConfigurationError, ParserConfigurationException {
 
-        generatePage(outputDirectory.resolve("index.html"), RESOURCE_PATH + "/index.html.xsl");
-        generatePage(outputDirectory.resolve("help-doc.html"),
-                RESOURCE_PATH + "/help-doc.html.xsl");
-        generatePage(outputDirectory.resolve("overview-frame.html"),
-                RESOURCE_PATH + "/overview-frame.html.xsl");
-        generatePage(outputDirectory.resolve("alltags-frame.html"),
-                RESOURCE_PATH + "/alltags-frame.html.xsl");
-        generatePage(outputDirectory.resolve("alltags-noframe.html"),
-                RESOURCE_PATH + "/alltags-noframe.html.xsl");
-        generatePage(outputDirectory.resolve("overview-summary.html"),
-                RESOURCE_PATH + "/overview-summary.html.xsl");
+        Map<String, TaglibIndex> shortNames = new HashMap<>();
+        for (TaglibIndex index : taglibIndexes) {
+            generateTldDetail(index, newLibrarySource(index), shortNames);
+        }
     }
 
     /**
-     * Generates all the detail folders for each TLD.
+     * Generates the detail folder of the given TLD.
+     *
+     * @param index      the index of the TLD
+     * @param source     the summary document holding this TLD
+     * @param shortNames the TLDs generated so far by short-name, this TLD is added
      *
      * @throws IOException          if an I/O error has occurred
      * @throws TransformerException If an unrecoverable error occurs during the course of the
      *                              transformation.
      * @throws GeneratorException   any error during generation
      */
-    private void generateTldDetail() throws IOException, TransformerException, GeneratorException {
-        ArrayList<String> shortNames = new ArrayList<>();
-        Element root = summaryTld.getDocumentElement();
-        NodeList taglibs = root.getElementsByTagNameNS("*", "taglib");
-        int size = taglibs.getLength();
-        for (int i = 0; i < size; i++) {
-            Element taglib = (Element) taglibs.item(i);
-            String shortName = findElementValue(taglib, "short-name");
-            String displayName = findElementValue(taglib, "display-name");
-            if (shortNames.contains(shortName)) {
-                throw new GeneratorException("Two tag libraries exist with the same short-name '"
-                        + shortName + "'.  This is not yet supported.");
-            }
-            String name = displayName;
-            if (name == null) {
-                name = shortName;
-            }
-            println("Generating docs for " + name + "...");
-            shortNames.add(shortName);
-            Path outDir = outputDirectory.resolve(shortName);
-            Files.createDirectories(outDir);
-
-            // Generate information for each TLD:
-            generateTldDetail(outDir, shortName);
-
-            // Generate information for each tag:
-            NodeList tags = taglib.getElementsByTagNameNS("*", "tag");
-            int numTags = tags.getLength();
-            for (int j = 0; j < numTags; j++) {
-                Element tag = (Element) tags.item(j);
-                String tagName = findElementValue(tag, "name");
-                generateTagDetail(outDir, shortName, tagName);
-            }
+    private void generateTldDetail(TaglibIndex index, Document source,
+            Map<String, TaglibIndex> shortNames)
+            throws IOException, TransformerException, GeneratorException {
+
+        Element taglib = index.getTaglib();
+        String shortName = TaglibIndex.childValue(taglib, "short-name");
+        String displayName = TaglibIndex.childValue(taglib, "display-name");
+        TaglibIndex conflict = shortNames.putIfAbsent(shortName, index);
+        if (conflict != null) {
+            throw new GeneratorException("Two different tag libraries exist with the same"
+                    + " short-name '" + shortName + "': " + conflict.getLocations() + " and "
+                    + index.getLocations() + ".  This is not yet supported.");
+        }
+        String name = displayName;
+        if (name == null) {
+            name = shortName;
+        }
+        listener().libraryGenerating(shortName, name);
+        searchIndex.add(index);
+        String outDir = shortName + '/';
 
-            // Generate information for each tag-file:
-            NodeList tagFiles = taglib.getElementsByTagNameNS("*", "tag-file");
-            int numTagFiles = tagFiles.getLength();
-            for (int j = 0; j < numTagFiles; j++) {
-                Element tagFile = (Element) tagFiles.item(j);
-                String tagFileName = findElementValue(tagFile, "name");
-                generateTagDetail(outDir, shortName, tagFileName);
-            }
+        // Generate information for each TLD:
+        generateTldDetail(source, outDir, shortName);
 
-            // Generate information for each function:
-            NodeList functions = taglib.getElementsByTagNameNS("*", "function");
-            int numFunctions = functions.getLength();
-            for (int j = 0; j < numFunctions; j++) {
-                Element function = (Element) functions.item(j);
-                String functionName = findElementValue(function, "name");
-                generateFunctionDetail(outDir, shortName, functionName);
-            }
+        // Generate information for each tag:
+        for (String tagName : index.getTagsByName().keySet()) {
+            generateTagDetail(source, outDir, shortName, tagName);
+        }
+
+        // Generate information for each tag-file:
+        for (String tagFileName : index.getTagFilesByName().keySet()) {
+            generateTagDetail(source, outDir, shortName, tagFileName);
+        }
+
+        // Generate information for each function:
+        for (String functionName : index.getFunctionsByName().keySet()) {
+            generateFunctionDetail(source, outDir, shortName, functionName);
         }
     }
 
@@ -1153,30 +2462,31 @@ public class TldDocGenerator {
      * Generates the detail content for the tag library with the given short-name. Files will be
      * placed in outdir.
      *
-     * @param outDir    the output directory for generated file
+     * @param source    the summary document holding the tag library
+     * @param outDir    the output directory for generated file, relative to the output sink
      * @param shortName the short-name of the tag library
      *
      * @throws IOException          if an I/O error has occurred
      * @throws TransformerException If an unrecoverable error occurs during the course of the
      *                              transformation.
      */
-    private void generateTldDetail(Path outDir, String shortName) throws IOException,
-            TransformerException {
+    private void generateTldDetail(Document source, String outDir, String shortName)
+            throws IOException, TransformerException {
 
         HashMap<String, String> parameters = new HashMap<>();
         parameters.put("tlddoc-shortName", shortName);
 
-        generatePage(outDir.resolve("tld-frame.html"),
-                RESOURCE_PATH + "/tld-frame.html.xsl", parameters);
-        generatePage(outDir.resolve("tld-summary.html"),
-                RESOURCE_PATH + "/tld-summary.html.xsl", parameters);
+        for (String page : TLD_PAGES) {
+            generatePage(source, outDir + page, RESOURCE_PATH + "/" + page + ".xsl", parameters);
+        }
     }
 
     /**
      * Generates the detail content for the tag with the given name in the tag library with the
      * given short-name. Files will be placed in outdir.
      *
-     * @param outDir    the output directory for generated file
+     * @param source    the summary document holding the tag library
+     * @param outDir    the output directory for generated file, relative to the output sink
      * @param shortName the short-name of the tag library
      * @param tagName   the tag-name of the tag library
      *
@@ -1184,14 +2494,14 @@ public class TldDocGenerator {
      * @throws TransformerException If an unrecoverable error occurs during the course of the
      *                              transformation.
      */
-    private void generateTagDetail(Path outDir, String shortName, String tagName) throws
-            IOException, TransformerException {
+    private void generateTagDetail(Document source, String outDir, String shortName,
+            String tagName) throws IOException, TransformerException {
 
         HashMap<String, String> parameters = new HashMap<>();
         parameters.put("tlddoc-shortName", shortName);
         parameters.put("tlddoc-tagName", tagName);
 
-        generatePage(outDir.resolve(tagName + ".html"),
+        generatePage(source, outDir + tagName + ".html",
                 RESOURCE_PATH + "/tag.html.xsl", parameters);
     }
 
@@ -1199,7 +2509,8 @@ public class TldDocGenerator {
      * Generates the detail content for the function with the given name in the tag library with the
      * given short-name. Files will be placed in outdir.
      *
-     * @param outDir       the output directory for generated file
+     * @param source       the summary document holding the tag library
+     * @param outDir       the output directory for generated file, relative to the output sink
      * @param shortName    the short-name of the tag library
      * @param functionName the function-name of the tag library
      *
@@ -1207,46 +2518,52 @@ public class TldDocGenerator {
      * @throws TransformerException If an unrecoverable error occurs during the course of the
      *                              transformation.
      */
-    private void generateFunctionDetail(Path outDir, String shortName, String functionName) throws
-            IOException, TransformerException {
+    private void generateFunctionDetail(Document source, String outDir, String shortName,
+            String functionName) throws IOException, TransformerException {
 
         HashMap<String, String> parameters = new HashMap<>();
         parameters.put("tlddoc-shortName", shortName);
         parameters.put("tlddoc-functionName", functionName);
 
-        generatePage(outDir.resolve(functionName + ".fn.html"),
+        generatePage(source, outDir + functionName + ".fn.html",
                 RESOURCE_PATH + "/function.html.xsl", parameters);
     }
 
     /**
-     * Searches through the given element and returns the value of the body of the element. Returns
-     * {@code null} if the element was not found.
+     * Generates the given page dynamically, by running the summary document through the given XSLT
+     * transform. Assumes no parameters.
      *
-     * @param parent  the element to get the value
-     * @param tagName the tag-name of the tag library
+     * @param source   The summary document, or the part of it needed for the page
+     * @param outFile  The target file, relative to the output sink
+     * @param inputXsl The stylesheet to use for the transformation
      *
-     * @return the value of the body of the element
+     * @throws IOException                          if an I/O error has occurred
+     * @throws TransformerFactoryConfigurationError Thrown in case of {@linkplain
+     * java.util.ServiceConfigurationError service configuration error} or if the implementation is
+     *                                              not available or cannot be instantiated.
+     * @throws TransformerConfigurationException    Thrown if there are errors when parsing the
+     *                                              {@code Source} or it is not possible to create a
+     *                                              {@code Transformer} instance.
+     * @throws TransformerException                 If an unrecoverable error occurs during the
+     *                                              course of the transformation.
      */
-    private String findElementValue(Element parent, String tagName) {
-        String result = null;
-        NodeList elements = parent.getElementsByTagNameNS("*", tagName);
-        if (elements.getLength() >= 1) {
-            Element child = (Element) elements.item(0);
-            Node body = child.getFirstChild();
-            if (body.getNodeType() == Node.TEXT_NODE) {
-                result = body.getNodeValue();
-            }
-        }
-        return result;
+    private void generatePage(Document source, String outFile, String inputXsl)
+            throws IOException, TransformerFactoryConfigurationError,
+            TransformerConfigurationException, TransformerException {
+
+        generatePage(source, outFile, inputXsl, null);
     }
 
     /**
      * Generates the given page dynamically, by running the summary document through the given XSLT
-     * transform. Assumes no parameters.
+     * transform.
      *
-     * @param outFile  The target file
-     * @param inputXsl The stylesheet to use for the transformation
+     * @param source     The summary document, or the part of it needed for the page
+     * @param outFile    The target file, relative to the output sink
+     * @param inputXsl   The stylesheet to use for the transformation
+     * @param parameters String key and Object value pairs to pass to the transformation.
      *
+     * @throws IOException                          if an I/O error has occurred
      * @throws TransformerFactoryConfigurationError Thrown in case of {@linkplain
      * java.util.ServiceConfigurationError service configuration error} or if the implementation is
      *                                              not available or cannot be instantiated.
@@ -1256,21 +2573,47 @@ public class TldDocGenerator {
      * @throws TransformerException                 If an unrecoverable error occurs during the
      *                                              course of the transformation.
      */
-    private void generatePage(Path outFile, String inputXsl) throws
+    private void generatePage(Document source, String outFile, String inputXsl,
+            Map<String, String> parameters) throws IOException,
             TransformerFactoryConfigurationError, TransformerConfigurationException,
             TransformerException {
 
-        generatePage(outFile, inputXsl, null);
+        final long start = System.nanoTime();
+        final GeneratePageEvent event = new GeneratePageEvent();
+        event.begin();
+        try (OutputStream out = outputSink.newOutputStream(outFile)) {
+            // Count the bytes only while the event is recorded
+            final CountingOutputStream counter
+                    = event.isEnabled() ? new CountingOutputStream(out) : null;
+            transformSummary(source, inputXsl, parameters,
+                    new StreamResult(counter == null ? out : counter));
+            if (counter != null) {
+                event.bytesWritten = counter.getCount();
+            }
+        }
+        event.end();
+
+        final String stylesheet = inputXsl.substring(RESOURCE_PATH.length() + 1);
+        stats.record(Item.PAGE, outFile, start);
+        stats.record(Item.STYLESHEET, stylesheet, start);
+        listener().pageWritten(outFile);
+        if (event.shouldCommit()) {
+            event.stylesheet = stylesheet;
+            event.outputFile = outFile;
+            event.commit();
+        }
     }
 
     /**
-     * Generates the given page dynamically, by running the summary document through the given XSLT
-     * transform.
+     * Runs the given summary document through the given XSLT transform.
      *
-     * @param outFile    The target file
+     * @param source     The summary document, or the part of it needed for the page
      * @param inputXsl   The stylesheet to use for the transformation
-     * @param parameters String key and Object value pairs to pass to the transformation.
+     * @param parameters String key and Object value pairs to pass to the transformation or
+     *                   {@code null} if there are none.
+     * @param result     The result of the transformation
      *
+     * @throws IOException                          if an I/O error has occurred
      * @throws TransformerFactoryConfigurationError Thrown in case of {@linkplain
      * java.util.ServiceConfigurationError service configuration error} or if the implementation is
      *                                              not available or cannot be instantiated.
@@ -1280,19 +2623,165 @@ public class TldDocGenerator {
      * @throws TransformerException                 If an unrecoverable error occurs during the
      *                                              course of the transformation.
      */
-    private void generatePage(Path outFile, String inputXsl, Map<String, String> parameters) throws
+    private void transformSummary(Document source, String inputXsl,
+            Map<String, String> parameters, Result result) throws IOException,
             TransformerFactoryConfigurationError, TransformerConfigurationException,
             TransformerException {
 
-        InputStream xsl = getResourceAsStream(inputXsl);
-        Transformer transformer = TransformerFactory.newInstance().newTransformer(
-                new StreamSource(xsl));
+        Transformer transformer = newTransformer(inputXsl);
         if (parameters != null) {
             for (Entry<String, String> entry : parameters.entrySet()) {
                 transformer.setParameter(entry.getKey(), entry.getValue());
             }
         }
-        transformer.transform(new DOMSource(summaryTld), new StreamResult(outFile.toFile()));
+        transformer.transform(new DOMSource(source), result);
+    }
+
+    /**
+     * Creates a new transformer for the given stylesheet. The stylesheet is compiled on first use
+     * only, unless it is already being compiled in the background.
+     *
+     * @param stylesheet The stylesheet to create the transformer for
+     *
+     * @return the new transformer
+     *
+     * @throws IOException                          if an I/O error has occurred
+     * @throws TransformerFactoryConfigurationError Thrown in case of {@linkplain
+     * java.util.ServiceConfigurationError service configuration error} or if the implementation is
+     *                                              not available or cannot be instantiated.
+     * @throws TransformerConfigurationException    Thrown if there are errors when parsing the
+     *                                              {@code Source} or it is not possible to create a
+     *                                              {@code Transformer} instance.
+     */
+    private Transformer newTransformer(String stylesheet) throws IOException,
+            TransformerFactoryConfigurationError, TransformerConfigurationException {
+
+        final String key = templatesKey(stylesheet);
+        Future<Templates> templates;
+        FutureTask<Templates> compiling = null;
+        synchronized (templatesCache) {
+            templates = templatesCache.get(key);
+            if (templates == null) {
+                compiling = new FutureTask<>(() -> compileStylesheet(stylesheet));
+                templates = compiling;
+                templatesCache.put(key, templates);
+            }
+        }
+        if (compiling != null) {
+            compiling.run();
+        }
+
+        try {
+            return awaitTemplates(stylesheet, templates).newTransformer();
+        } catch (IOException | TransformerConfigurationException | RuntimeException | Error e) {
+            // Do not keep the failure, the next use compiles the stylesheet again
+            synchronized (templatesCache) {
+                templatesCache.remove(key, templates);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Starts compiling the bundled stylesheets needed for every generation in the background, so
+     * they are ready when the pages are generated. Nothing is compiled in the background if only
+     * one thread is to be used or if the stylesheets are taken from an XSLT directory.
+     */
+    private void precompileStylesheets() {
+        final int threadCount = Math.min(threads - 1, PRECOMPILED_STYLESHEETS.length);
+        if (threadCount < 1 || xsltDirectory != null) {
+            return;
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(threadCount, runnable -> {
+            final Thread thread = new Thread(runnable, "tlddoc-compiler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        synchronized (templatesCache) {
+            for (String name : PRECOMPILED_STYLESHEETS) {
+                final String stylesheet = RESOURCE_PATH + "/" + name;
+                final String key = templatesKey(stylesheet);
+                if (!templatesCache.containsKey(key)) {
+                    templatesCache.put(key, executor.submit(() -> compileStylesheet(stylesheet)));
+                }
+            }
+        }
+        // The queued stylesheets are still compiled
+        executor.shutdown();
+    }
+
+    /**
+     * Returns the key of the given stylesheet in the templates cache. Stylesheets of different
+     * XSLT directories are kept apart, as the cache may be shared with other generators.
+     *
+     * @param stylesheet The stylesheet
+     *
+     * @return the key of the stylesheet
+     */
+    private String templatesKey(String stylesheet) {
+        return xsltDirectory == null ? stylesheet
+                : xsltDirectory.toAbsolutePath().normalize() + "!" + stylesheet;
+    }
+
+    /**
+     * Compiles the given stylesheet.
+     *
+     * @param stylesheet The stylesheet to compile
+     *
+     * @return the compiled stylesheet
+     *
+     * @throws IOException                          if an I/O error has occurred
+     * @throws TransformerFactoryConfigurationError Thrown in case of {@linkplain
+     * java.util.ServiceConfigurationError service configuration error} or if the implementation is
+     *                                              not available or cannot be instantiated.
+     * @throws TransformerConfigurationException    Thrown if there are errors when parsing the
+     *                                              {@code Source}.
+     */
+    private Templates compileStylesheet(String stylesheet) throws IOException,
+            TransformerFactoryConfigurationError, TransformerConfigurationException {
+
+        try (InputStream xsl = getResourceAsStream(stylesheet)) {
+            return XmlSupport.newTemplates(new StreamSource(xsl));
+        }
+    }
+
+    /**
+     * Waits for the stylesheet compiled by this or another thread. Any error of the compilation
+     * is rethrown as it is.
+     *
+     * @param stylesheet the name of the stylesheet
+     * @param templates  the compiling stylesheet
+     *
+     * @return the compiled stylesheet
+     *
+     * @throws IOException                       if an I/O error has occurred
+     * @throws TransformerConfigurationException Thrown if there are errors when parsing the
+     *                                           {@code Source} or if the waiting thread was
+     *                                           interrupted.
+     */
+    private static Templates awaitTemplates(String stylesheet, Future<Templates> templates)
+            throws IOException, TransformerConfigurationException {
+
+        try {
+            return templates.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransformerConfigurationException(
+                    "Interrupted while compiling " + stylesheet, e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof TransformerConfigurationException) {
+                throw (TransformerConfigurationException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new TransformerConfigurationException(cause);
+        }
     }
 
     /**
@@ -1300,26 +2789,26 @@ public class TldDocGenerator {
      * will be used to find the resource. If xsltDirectory is not null, the files are copied from
      * that directory instead.
      *
-     * @param outputFile The destination file
+     * @param outputFile The destination file, relative to the output sink
      * @param resource   The resource to copy, starting with '/'
      *
      * @throws IOException if an I/O error has occurred
      */
-    private void copyResourceToFile(Path outputFile, String resource) throws IOException {
-        try (InputStream in = getResourceAsStream(resource)) {
-            Files.copy(in, outputFile, StandardCopyOption.REPLACE_EXISTING);
+    private void copyResourceToFile(String outputFile, String resource) throws IOException {
+        try (InputStream in = getResourceAsStream(resource);
+                OutputStream out = outputSink.newOutputStream(outputFile)) {
+            in.transferTo(out);
         }
+        listener().pageWritten(outputFile);
     }
 
     /**
-     * Outputs the given message to {@code stdout}, only if {@code !quiet}.
+     * Returns the listener to notify, which is {@link GenerationListener#NONE} in quiet mode.
      *
-     * @param message the message to {@code stdout}
+     * @return the listener to notify
      */
-    private void println(String message) {
-        if (!quiet) {
-            System.out.println(message);
-        }
+    private GenerationListener listener() {
+        return quiet ? GenerationListener.NONE : listener;
     }
 
     /**
@@ -1342,7 +2831,7 @@ public class TldDocGenerator {
                 result = Files.newInputStream(resourceFile);
             } catch (IOException e) {
                 // result will be null and we'll default to default stylesheet
-                println("XSLT-Directory not found, use default-stylesheet: " + e.getMessage());
+                listener().warning("XSLT-Directory not found, use default-stylesheet.", e);
             }
         }
 
@@ -1357,6 +2846,42 @@ public class TldDocGenerator {
      * Displays a "success" message.
      */
     private void outputSuccessMessage() {
-        println("\nDocumentation generated.");
+        listener().generationFinished();
+    }
+
+    /**
+     * A tag library loaded, translated and populated, but not merged into the summary yet.
+     */
+    private static final class LoadedTagLibrary {
+
+        /**
+         * The tag library, already closed.
+         */
+        private final TagLibrary tagLibrary;
+
+        /**
+         * The index of the populated TLD or {@code null} if the tag library has nothing to
+         * document.
+         */
+        private final TaglibIndex index;
+
+        /**
+         * The callbacks made while loading, to replay when merging.
+         */
+        private final DeferredGenerationListener events;
+
+        /**
+         * Creates a new instance of {@link LoadedTagLibrary}.
+         *
+         * @param tagLibrary the tag library
+         * @param index      the index of the populated TLD or {@code null} if it was skipped
+         * @param events     the callbacks made while loading
+         */
+        LoadedTagLibrary(TagLibrary tagLibrary, TaglibIndex index,
+                DeferredGenerationListener events) {
+            this.tagLibrary = tagLibrary;
+            this.index = index;
+            this.events = events;
+        }
     }
 }
@@ -0,0 +1,191 @@
+/*
+ * <license>
+ * Copyright (c) 2003-2004, Sun Microsystems, Inc.
+ * Copyright (c) 2022-2026, Web-Legacy
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of Sun Microsystems, Inc. nor the names of its
+ *       contributors may be used to endorse or promote products derived from
+ *       this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * </license>
+ */
+
+
+package io.github.weblegacy.tlddoc.main;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+
+/**
+ * Embedded HTTP server for the documentation. The tag libraries are loaded once at startup, pages
+ * are rendered only when they are requested and kept in a size-bounded LRU cache.
+ *
+ * @author ste-gr
+ */
+public class TldDocServer {
+
+    /**
+     * The default maximum size of the page cache (32 MiB).
+     */
+    public static final long DEFAULT_CACHE_SIZE = 32L * 1024L * 1024L;
+
+    /**
+     * The generator rendering the pages.
+     */
+    private final TldDocGenerator generator;
+
+    /**
+     * The rendered pages.
+     */
+    private final PageCache cache;
+
+    /**
+     * The running HTTP server, or {@code null} if not started.
+     */
+    private HttpServer server;
+
+    /**
+     * Creates a new instance of {@link TldDocServer}.
+     *
+     * @param generator the generator with the tag libraries to serve; the tag libraries are loaded
+     *                  when the server is started
+     * @param cacheSize the maximum size of the page cache in bytes
+     */
+    public TldDocServer(TldDocGenerator generator, long cacheSize) {
+        this.generator = generator;
+        this.cache = new PageCache(cacheSize);
+    }
+
+    /**
+     * Loads the tag libraries and starts the server.
+     *
+     * @param address the address to listen on
+     *
+     * @throws IOException        if the server could not be started
+     * @throws GeneratorException any error while loading the tag libraries
+     */
+    public void start(InetSocketAddress address) throws IOException, GeneratorException {
+        generator.load();
+
+        // The summary document is not thread-safe, so requests are served one at a time by the
+        // dispatcher thread of the server.
+        server = HttpServer.create(address, 0);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    /**
+     * Returns the address the server is listening on.
+     *
+     * @return the address the server is listening on
+     */
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    /**
+     * Stops the server.
+     */
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+    }
+
+    /**
+     * Handles one request.
+     *
+     * @param exchange the request and response
+     *
+     * @throws IOException if an I/O error has occurred
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String path = exchange.getRequestURI().getPath();
+            if (path.startsWith("/")) {
+                path = path.substring(1);
+            }
+            if (path.isEmpty()) {
+                path = "index.html";
+            }
+
+            final String method = exchange.getRequestMethod();
+            if (!"GET".equals(method) && !"HEAD".equals(method)) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            byte[] page = cache.get(path);
+            if (page == null) {
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                try {
+                    if (!generator.renderPage(path, buffer)) {
+                        exchange.sendResponseHeaders(404, -1);
+                        return;
+                    }
+                } catch (GeneratorException e) {
+                    // Reported even in quiet mode, like a failed generation on the command line
+                    System.err.println("Could not render page '" + path + "':");
+                    e.printStackTrace(System.err);
+                    exchange.sendResponseHeaders(500, -1);
+                    return;
+                }
+                page = buffer.toByteArray();
+                cache.put(path, page);
+            }
+
+            exchange.getResponseHeaders().set("Content-Type", contentType(path));
+            if ("HEAD".equals(method)) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(200, page.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(page);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Returns the content-type of the given page.
+     *
+     * @param path the path of the page
+     *
+     * @return the content-type of the given page
+     */
+    private static String contentType(String path) {
+        if (path.endsWith(".css")) {
+            return "text/css; charset=UTF-8";
+        }
+        if (path.endsWith(".js")) {
+            return "text/javascript; charset=UTF-8";
+        }
+        return "text/html; charset=UTF-8";
+    }
+}
@@ -36,6 +36,8 @@
  */
 module io.github.weblegacy.tlddoc {
     requires transitive java.xml;
+    requires jdk.httpserver;
+    requires jdk.jfr;
 
     exports io.github.weblegacy.tlddoc.main;
     exports io.github.weblegacy.tlddoc.tagfileparser;
@@ -78,6 +78,10 @@
                                 <a href="alltags-frame.html" target="tldFrame">
                                     <xsl:text>All Tags / Functions</xsl:text>
                                 </a>
+                                <br />
+                                <a href="search.html" target="tldFrame">
+                                    <xsl:text>Search</xsl:text>
+                                </a>
                             </font>
                             <p />
                             <font size="+1" class="FrameHeadingFont">
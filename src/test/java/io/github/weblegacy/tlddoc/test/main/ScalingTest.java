@@ -0,0 +1,314 @@
+/*
+ * <license>
+ * Copyright (c) 2003-2004, Sun Microsystems, Inc.
+ * Copyright (c) 2022-2026, Web-Legacy
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of Sun Microsystems, Inc. nor the names of its
+ *       contributors may be used to endorse or promote products derived from
+ *       this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * </license>
+ */
+
+package io.github.weblegacy.tlddoc.test.main;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.weblegacy.tlddoc.main.GeneratorException;
+import io.github.weblegacy.tlddoc.main.TldDocGenerator;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests that the generation scales with the size of the corpus. Each test generates the
+ * documentation for {@value #SIZES} corpora, each twice as large as the one before, and checks that
+ * run time and heap grow clearly less than quadratically from one size to the next, i.e. by less
+ * than a factor of {@value #MAX_GROWTH}.
+ *
+ * <p>The measurements depend on the load of the machine and on the garbage collector, so these
+ * tests are excluded from the default build. They are run with the profile {@code scaling}.</p>
+ *
+ * @author ste-gr
+ */
+@Tag("scaling")
+class ScalingTest {
+
+    /**
+     * Number of corpus sizes measured by each test.
+     */
+    private static final int SIZES = 3;
+
+    /**
+     * The factor each corpus is bigger than the one before.
+     */
+    private static final int STEP = 2;
+
+    /**
+     * The maximum growth of run time and heap from one size to the next. Linear growth would be
+     * {@code STEP}, quadratic growth {@code STEP * STEP}.
+     */
+    private static final double MAX_GROWTH = 3.0;
+
+    /**
+     * The heap below which differences are considered noise, in bytes. The used heap after a
+     * garbage collection varies by a few MiB between runs.
+     */
+    private static final long HEAP_NOISE = 4L << 20;
+
+    /**
+     * Number of runs per size, the fastest run is taken to reduce noise.
+     */
+    private static final int RUNS = 3;
+
+    /**
+     * The temporary directory for the corpora.
+     */
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Warms up the generator, so the first measurement does not include class loading and
+     * compiling the stylesheets.
+     *
+     * @param tempDir the temporary directory for the warm-up corpus
+     *
+     * @throws IOException        if the corpus could not be written
+     * @throws GeneratorException any error during the generation
+     */
+    @BeforeAll
+    static void warmUp(@TempDir Path tempDir) throws IOException, GeneratorException {
+        for (int i = 0; i < RUNS; i++) {
+            final TldDocGenerator generator = newGenerator();
+            new CorpusGenerator().libraries(CorpusGenerator.JSP_VERSIONS.length)
+                    .writeTlds(tempDir).forEach(generator::addTld);
+            run(generator);
+        }
+    }
+
+    /**
+     * Test scaling with the number of tag libraries.
+     *
+     * @throws IOException        if the corpus could not be written
+     * @throws GeneratorException any error during the generation
+     */
+    @Test
+    @DisplayName("Test scaling with the number of tag libraries.")
+    void scaleLibraries() throws IOException, GeneratorException {
+        final Measurement[] measurements = new Measurement[SIZES];
+        for (int i = 0, scale = 1; i < SIZES; i++, scale *= STEP) {
+            measurements[i] = measure(new CorpusGenerator().libraries(10 * scale).tags(10),
+                    "size" + scale);
+        }
+        assertSubQuadratic(measurements);
+    }
+
+    /**
+     * Test scaling with the number of tags per tag library.
+     *
+     * @throws IOException        if the corpus could not be written
+     * @throws GeneratorException any error during the generation
+     */
+    @Test
+    @DisplayName("Test scaling with the number of tags per tag library.")
+    void scaleTags() throws IOException, GeneratorException {
+        final Measurement[] measurements = new Measurement[SIZES];
+        for (int i = 0, scale = 1; i < SIZES; i++, scale *= STEP) {
+            measurements[i] = measure(new CorpusGenerator().libraries(2).tags(30 * scale),
+                    "size" + scale);
+        }
+        assertSubQuadratic(measurements);
+    }
+
+    /**
+     * Test scaling with the size of a web application.
+     *
+     * @throws IOException        if the corpus could not be written
+     * @throws GeneratorException any error during the generation
+     */
+    @Test
+    @DisplayName("Test scaling with the size of a web application.")
+    void scaleWar() throws IOException, GeneratorException {
+        final Measurement[] measurements = new Measurement[SIZES];
+        for (int i = 0, scale = 1; i < SIZES; i++, scale *= STEP) {
+            measurements[i] = measureWar(new CorpusGenerator().libraries(2).tags(10 * scale),
+                    "size" + scale);
+        }
+        assertSubQuadratic(measurements);
+    }
+
+    /**
+     * Generates the documentation for the TLDs of the corpus.
+     *
+     * @param corpus the corpus
+     * @param name   the name of the corpus directory
+     *
+     * @return the measurement of the fastest run
+     *
+     * @throws IOException        if the corpus could not be written
+     * @throws GeneratorException any error during the generation
+     */
+    private Measurement measure(CorpusGenerator corpus, String name)
+            throws IOException, GeneratorException {
+
+        final Iterable<Path> tlds = corpus.writeTlds(tempDir.resolve(name));
+        Measurement best = null;
+        for (int i = 0; i < RUNS; i++) {
+            final TldDocGenerator generator = newGenerator();
+            tlds.forEach(generator::addTld);
+            best = Measurement.min(best, run(generator));
+        }
+        return best;
+    }
+
+    /**
+     * Generates the documentation for the corpus packaged as a WAR.
+     *
+     * @param corpus the corpus
+     * @param name   the name of the WAR
+     *
+     * @return the measurement of the fastest run
+     *
+     * @throws IOException        if the corpus could not be written
+     * @throws GeneratorException any error during the generation
+     */
+    private Measurement measureWar(CorpusGenerator corpus, String name)
+            throws IOException, GeneratorException {
+
+        final Path war = tempDir.resolve(name + ".war");
+        corpus.tagDirDepth(4).writeWar(war);
+        Measurement best = null;
+        for (int i = 0; i < RUNS; i++) {
+            final TldDocGenerator generator = newGenerator();
+            generator.addWar(war);
+            best = Measurement.min(best, run(generator));
+        }
+        return best;
+    }
+
+    /**
+     * Creates a new quiet generator.
+     *
+     * @return the new generator
+     */
+    private static TldDocGenerator newGenerator() {
+        final TldDocGenerator generator = new TldDocGenerator();
+        generator.setQuiet(true);
+        return generator;
+    }
+
+    /**
+     * Generates the documentation in memory and measures run time and heap. The heap is measured
+     * after the generation, while the generator and the generated files are still reachable, and
+     * approximates the peak live heap of the generation.
+     *
+     * @param generator the generator to run
+     *
+     * @return the measurement
+     *
+     * @throws GeneratorException any error during the generation
+     */
+    private static Measurement run(TldDocGenerator generator) throws GeneratorException {
+        final long baseline = usedHeap();
+        final long start = System.nanoTime();
+        final Map<String, byte[]> files = generator.generateInMemory();
+        final long time = System.nanoTime() - start;
+        final long heap = usedHeap() - baseline;
+        assertFalse(files.isEmpty());
+        return new Measurement(time, heap);
+    }
+
+    /**
+     * Returns the used heap after a garbage collection.
+     *
+     * @return the used heap in bytes
+     */
+    private static long usedHeap() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * Asserts that run time and heap grow sub-quadratically between each two successive sizes.
+     *
+     * @param measurements the measurements of the corpora, ordered by size
+     */
+    private static void assertSubQuadratic(Measurement... measurements) {
+        for (int i = 1; i < measurements.length; i++) {
+            final Measurement small = measurements[i - 1];
+            final Measurement large = measurements[i];
+            final int size = i;
+            final double timeGrowth = (double) large.time / small.time;
+            final double heapGrowth = (double) large.heap / Math.max(small.heap, HEAP_NOISE);
+            assertTrue(timeGrowth < MAX_GROWTH,
+                    () -> "Run time grew by factor " + timeGrowth + " to size " + size);
+            assertTrue(heapGrowth < MAX_GROWTH,
+                    () -> "Heap grew by factor " + heapGrowth + " to size " + size);
+        }
+    }
+
+    /**
+     * Run time and heap of one generation.
+     */
+    private static final class Measurement {
+
+        /**
+         * The run time in nanoseconds.
+         */
+        final long time;
+
+        /**
+         * The heap in bytes.
+         */
+        final long heap;
+
+        /**
+         * Creates a new instance of {@link Measurement}.
+         *
+         * @param time the run time in nanoseconds
+         * @param heap the heap in bytes
+         */
+        Measurement(long time, long heap) {
+            this.time = time;
+            this.heap = heap;
+        }
+
+        /**
+         * Returns the measurement with the smaller run time.
+         *
+         * @param a the first measurement or {@code null}
+         * @param b the second measurement
+         *
+         * @return the measurement with the smaller run time
+         */
+        static Measurement min(Measurement a, Measurement b) {
+            return a == null || b.time < a.time ? b : a;
+        }
+    }
+}
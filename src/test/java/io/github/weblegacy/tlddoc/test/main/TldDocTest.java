@@ -31,13 +31,46 @@
 
 package io.github.weblegacy.tlddoc.test.main;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import io.github.weblegacy.tlddoc.main.GenerationListener;
+import io.github.weblegacy.tlddoc.main.GenerationStats;
+import io.github.weblegacy.tlddoc.main.GeneratorException;
+import io.github.weblegacy.tlddoc.main.TagLibrary;
 import io.github.weblegacy.tlddoc.main.TldDoc;
+import io.github.weblegacy.tlddoc.main.TldDocGenerator;
+import io.github.weblegacy.tlddoc.main.TldDocServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.zip.ZipFile;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 
@@ -65,4 +98,611 @@ class TldDocTest {
         assertTrue(Files.isReadable(index), () -> "TldDoc for JSP-Version " + jspVersion
                 + " not generated: " + index);
     }
+
+    /**
+     * Test TldDoc generation into a ZIP-archive.
+     *
+     * @throws IOException if the archive could not be read
+     */
+    @Test
+    @DisplayName("Test TldDoc generation into a ZIP-archive.")
+    void tldDocArchive() throws IOException {
+        TldDoc.main(new String[]{"-q", "-o", "target/o-archive/site.zip",
+            "target/test-classes/jsp20.tld"});
+
+        Path archive = Paths.get("target", "o-archive", "site.zip").toAbsolutePath();
+        assertTrue(Files.isReadable(archive), () -> "TldDoc archive not generated: " + archive);
+        try (ZipFile zip = new ZipFile(archive.toFile())) {
+            assertNotNull(zip.getEntry("index.html"), "index.html missing in archive");
+            assertNotNull(zip.getEntry("stylesheet.css"), "stylesheet.css missing in archive");
+        }
+    }
+
+    /**
+     * Test TldDoc generation of several documentations listed in a manifest.
+     *
+     * @param tempDir temporary directory for the manifest and the documentations
+     *
+     * @throws IOException if the manifest could not be written or a page could not be read
+     */
+    @Test
+    @DisplayName("Test TldDoc generation of several documentations listed in a manifest.")
+    void tldDocBatch(@TempDir Path tempDir) throws IOException {
+        Path manifest = tempDir.resolve("manifest.txt");
+        Files.write(manifest, List.of(
+                "# One documentation per line",
+                "-d '" + tempDir.resolve("doc 11") + "' target/test-classes/jsp11.tld",
+                "",
+                "-d '" + tempDir.resolve("doc 20") + "' -doctitle \"Batch Test\""
+                + " target/test-classes/jsp20.tld"));
+        TldDoc.main(new String[]{"-q", "-batch", manifest.toString(), "-batch-threads", "2"});
+
+        Path index11 = tempDir.resolve("doc 11").resolve("index.html");
+        assertTrue(Files.isReadable(index11), () -> "TldDoc not generated: " + index11);
+        Path index20 = tempDir.resolve("doc 20").resolve("overview-summary.html");
+        assertTrue(Files.isReadable(index20), () -> "TldDoc not generated: " + index20);
+        assertTrue(Files.readString(index20).contains("Batch Test"),
+                "Title of the entry not used");
+    }
+
+    /**
+     * Test TldDoc generation of several documentations in parallel, sharing one TLD cache.
+     *
+     * @param tempDir temporary directory for the manifest, the cache and the documentations
+     *
+     * @throws IOException if the manifest could not be written or the cache could not be read
+     */
+    @Test
+    @DisplayName("Test TldDoc generation of parallel batch entries sharing one TLD cache.")
+    void tldDocBatchTldCache(@TempDir Path tempDir) throws IOException {
+        final int count = 12;
+        Path cache = tempDir.resolve("cache");
+        Path manifest = tempDir.resolve("manifest.txt");
+        List<String> lines = new ArrayList<>();
+        for (int entry = 0; entry < count; entry++) {
+            lines.add("-d '" + tempDir.resolve("doc" + entry) + "'"
+                    + " target/test-classes/jsp11.tld target/test-classes/jsp12.tld"
+                    + " target/test-classes/jsp20.tld");
+        }
+        Files.write(manifest, lines);
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(buffer, true, StandardCharsets.UTF_8));
+        try {
+            TldDoc.main(new String[]{"-q", "-tld-cache", cache.toString(), "-batch",
+                manifest.toString(), "-batch-threads", Integer.toString(count)});
+        } finally {
+            System.setOut(out);
+        }
+
+        String output = buffer.toString(StandardCharsets.UTF_8);
+        assertFalse(output.contains("FAILED"), output);
+        assertFalse(output.contains("WARNING"), output);
+        for (int entry = 0; entry < count; entry++) {
+            Path index = tempDir.resolve("doc" + entry).resolve("index.html");
+            assertTrue(Files.isReadable(index), () -> "TldDoc not generated: " + index);
+        }
+        try (Stream<Path> entries = Files.list(cache)) {
+            assertEquals(3, entries.filter(f -> f.toString().endsWith(".xml")).count());
+        }
+    }
+
+    /**
+     * Test TldDoc generation in memory.
+     *
+     * @throws GeneratorException any error during generation
+     */
+    @Test
+    @DisplayName("Test TldDoc generation in memory.")
+    void tldDocInMemory() throws GeneratorException {
+        TldDocGenerator generator = new TldDocGenerator();
+        generator.setQuiet(true);
+        generator.setOutputDirectory(Paths.get("target", "o-memory"));
+        generator.addTld(Paths.get("target", "test-classes", "jsp20.tld"));
+
+        Map<String, byte[]> files = generator.generateInMemory();
+        assertNotNull(files.get("index.html"), "index.html not generated");
+        assertNotNull(files.get("jsp20_test/tld-summary.html"), "tld-summary.html not generated");
+        assertTrue(Files.notExists(Paths.get("target", "o-memory")),
+                "Output directory must not be created");
+    }
+
+    /**
+     * Test the search index built while generating the pages.
+     *
+     * @throws GeneratorException any error during generation
+     */
+    @Test
+    @DisplayName("Test the search index built while generating the pages.")
+    void tldDocSearchIndex() throws GeneratorException {
+        Map<String, byte[]> files = generateJspTlds(true);
+        assertNotNull(files.get("search.html"), "search.html not generated");
+
+        String index = new String(files.get("search-index.js"), StandardCharsets.UTF_8);
+        assertTrue(index.startsWith("tlddocSearchIndex({"), index);
+        assertTrue(index.contains("[\"jsp20_test\",\"EN-JSP 2.0 Test\","), index);
+        assertTrue(index.contains("[\"t\",2,\"tagA\",\"EN-Description for tagA\"]"), index);
+        assertTrue(index.contains("[\"a\",2,\"attA1\",\"EN-Description for tagA Attribute 1\","
+                + "\"tagA\"]"), index);
+        assertTrue(index.contains("[\"f\",2,\"tag_func1\","), index);
+    }
+
+    /**
+     * Test TldDoc generation in streaming mode.
+     *
+     * @throws GeneratorException any error during generation
+     */
+    @Test
+    @DisplayName("Test TldDoc generation in streaming mode.")
+    void tldDocStreaming() throws GeneratorException {
+        Map<String, byte[]> expected = generateJspTlds(false);
+        Map<String, byte[]> files = generateJspTlds(true);
+
+        assertEquals(expected.keySet(), files.keySet());
+        for (Map.Entry<String, byte[]> file : files.entrySet()) {
+            assertArrayEquals(expected.get(file.getKey()), file.getValue(),
+                    () -> file.getKey() + " differs in streaming mode");
+        }
+    }
+
+    /**
+     * Test TldDoc generation from the fragments of the tag libraries, each written by a run of
+     * its own.
+     *
+     * @param tempDir temporary directory for the fragments
+     *
+     * @throws GeneratorException any error during generation
+     */
+    @Test
+    @DisplayName("Test TldDoc generation from the fragments of the tag libraries.")
+    void tldDocFragments(@TempDir Path tempDir) throws GeneratorException {
+        for (String jspVersion : new String[]{"11", "12", "20"}) {
+            TldDocGenerator generator = new TldDocGenerator();
+            generator.setQuiet(true);
+            generator.addTld(Paths.get("target", "test-classes", "jsp" + jspVersion + ".tld"));
+            generator.generateFragments(tempDir);
+        }
+        Path fragment = tempDir.resolve("jsp20_test.fragment.xml");
+        assertTrue(Files.isReadable(fragment), () -> "Fragment not written: " + fragment);
+
+        TldDocGenerator generator = new TldDocGenerator();
+        generator.setQuiet(true);
+        generator.addFragment(tempDir);
+        Map<String, byte[]> files = generator.generateInMemory();
+        Map<String, byte[]> expected = generateJspTlds(false);
+
+        assertEquals(expected.keySet(), files.keySet());
+        for (Map.Entry<String, byte[]> file : files.entrySet()) {
+            assertArrayEquals(expected.get(file.getKey()), file.getValue(),
+                    () -> file.getKey() + " differs when generated from fragments");
+        }
+    }
+
+    /**
+     * Test TldDoc generation with the upgraded TLDs taken from the cache.
+     *
+     * @param tempDir temporary directory for the cache
+     *
+     * @throws IOException        if the cache could not be read
+     * @throws GeneratorException any error during generation
+     */
+    @Test
+    @DisplayName("Test TldDoc generation with the upgraded TLDs taken from the cache.")
+    void tldDocTldCache(@TempDir Path tempDir) throws IOException, GeneratorException {
+        Map<String, byte[]> expected = generateJspTlds(false);
+        for (int run = 1; run <= 2; run++) {
+            TldDocGenerator generator = new TldDocGenerator();
+            generator.setQuiet(true);
+            generator.setTldCacheDirectory(tempDir);
+            for (String jspVersion : new String[]{"11", "12", "20"}) {
+                generator.addTld(Paths.get("target", "test-classes", "jsp" + jspVersion + ".tld"));
+            }
+            Map<String, byte[]> files = generator.generateInMemory();
+
+            final int upgraded = run == 1 ? 3 : 0;
+            assertEquals(upgraded,
+                    generator.getStats().getPhase(GenerationStats.Phase.UPGRADE).getCount());
+            assertEquals(expected.keySet(), files.keySet());
+            for (Map.Entry<String, byte[]> file : files.entrySet()) {
+                assertArrayEquals(expected.get(file.getKey()), file.getValue(),
+                        () -> file.getKey() + " differs with the TLD cache");
+            }
+        }
+        try (Stream<Path> entries = Files.list(tempDir)) {
+            assertEquals(3, entries.filter(f -> f.toString().endsWith(".xml")).count());
+        }
+    }
+
+    /**
+     * Test TldDoc generation with the same TLD found several times, and with two different TLDs
+     * of the same short-name.
+     *
+     * @param tempDir temporary directory for the copies of the TLD and its tag files
+     *
+     * @throws IOException        if a TLD could not be copied
+     * @throws GeneratorException any error during generation
+     */
+    @Test
+    @DisplayName("Test TldDoc generation with the same TLD found several times.")
+    void tldDocDuplicates(@TempDir Path tempDir) throws IOException, GeneratorException {
+        Path tld = Paths.get("target", "test-classes", "jsp20.tld");
+        Path copy = Files.copy(tld, tempDir.resolve("copy.tld"));
+        for (String tagFile : new String[]{"jsp20_tag1.tag", "jsp20_tag2.tag"}) {
+            Files.copy(tld.resolveSibling(tagFile), tempDir.resolve(tagFile));
+        }
+        List<String> duplicates = new ArrayList<>();
+        TldDocGenerator generator = new TldDocGenerator();
+        generator.setGenerationListener(new GenerationListener() {
+            @Override
+            public void libraryDuplicate(TagLibrary tagLibrary, TagLibrary original) {
+                duplicates.add(tagLibrary.getPathDescription());
+            }
+        });
+        generator.addTld(tld);
+        generator.addTld(copy);
+        Map<String, byte[]> files = generator.generateInMemory();
+
+        assertEquals(List.of(copy.toAbsolutePath().toString()), duplicates);
+        assertNotNull(files.get("jsp20_test/tld-summary.html"), "tld-summary.html not generated");
+
+        Path changed = tempDir.resolve("changed.tld");
+        Files.writeString(changed, Files.readString(tld).replace("EN-Description for tagA",
+                "Changed description for tagA"));
+        TldDocGenerator conflicting = new TldDocGenerator();
+        conflicting.setQuiet(true);
+        conflicting.addTld(tld);
+        conflicting.addTld(changed);
+        GeneratorException e = assertThrows(GeneratorException.class,
+                conflicting::generateInMemory);
+        assertTrue(e.getMessage().contains(changed.toAbsolutePath().toString()), e.getMessage());
+    }
+
+    /**
+     * Test TldDoc generation with the same tag directory found in several web applications, and
+     * with a tag directory of the same short-name but different tag files.
+     *
+     * @param tempDir temporary directory for the web applications
+     *
+     * @throws IOException        if a web application could not be written
+     * @throws GeneratorException any error during generation
+     */
+    @Test
+    @DisplayName("Test TldDoc generation with the same tag directory in several web applications.")
+    void tldDocDuplicateTagDirs(@TempDir Path tempDir) throws IOException, GeneratorException {
+        Path tag = Paths.get("target", "test-classes", "jsp20_tag1.tag");
+        Path webApp = tempDir.resolve("wa");
+        Path copy = tempDir.resolve("wa2");
+        Path changed = tempDir.resolve("wa3");
+        for (Path root : new Path[]{webApp, copy, changed}) {
+            Path tags = Files.createDirectories(root.resolve("WEB-INF/tags/foo"));
+            Files.copy(tag, tags.resolve("tag1.tag"));
+        }
+        Files.writeString(changed.resolve("WEB-INF/tags/foo/tag1.tag"),
+                Files.readString(tag).replace("Description of jsp20_tag1_1", "Changed"));
+
+        List<String> duplicates = new ArrayList<>();
+        TldDocGenerator generator = new TldDocGenerator();
+        generator.setGenerationListener(new GenerationListener() {
+            @Override
+            public void libraryDuplicate(TagLibrary tagLibrary, TagLibrary original) {
+                duplicates.add(tagLibrary.getPathDescription());
+            }
+        });
+        generator.addWebApp(webApp);
+        generator.addWebApp(copy);
+        Map<String, byte[]> files = generator.generateInMemory();
+
+        assertTrue(duplicates.contains(copy.resolve("WEB-INF/tags/foo").toAbsolutePath()
+                .toString()), duplicates::toString);
+        assertNotNull(files.get("foo/tld-summary.html"), "tld-summary.html not generated");
+
+        TldDocGenerator conflicting = new TldDocGenerator();
+        conflicting.setQuiet(true);
+        conflicting.addWebApp(webApp);
+        conflicting.addWebApp(changed);
+        GeneratorException e = assertThrows(GeneratorException.class,
+                conflicting::generateInMemory);
+        assertTrue(e.getMessage().contains(changed.resolve("WEB-INF/tags/foo").toAbsolutePath()
+                .toString()), e.getMessage());
+    }
+
+    /**
+     * Test TldDoc generation with the tag libraries loaded in parallel.
+     *
+     * @throws GeneratorException any error during generation
+     */
+    @Test
+    @DisplayName("Test TldDoc generation with the tag libraries loaded in parallel.")
+    void tldDocParallelLoading() throws GeneratorException {
+        List<String> expectedLoaded = new ArrayList<>();
+        Map<String, byte[]> expected = generateJspTlds(1, expectedLoaded);
+        List<String> loaded = new ArrayList<>();
+        Map<String, byte[]> files = generateJspTlds(3, loaded);
+
+        assertEquals(List.of("jsp11_test", "jsp12_test", "jsp20_test"), expectedLoaded);
+        assertEquals(expectedLoaded, loaded);
+        assertEquals(expected.keySet(), files.keySet());
+        for (Map.Entry<String, byte[]> file : files.entrySet()) {
+            assertArrayEquals(expected.get(file.getKey()), file.getValue(),
+                    () -> file.getKey() + " differs when loaded in parallel");
+        }
+    }
+
+    /**
+     * Test writing the upgrade stages of the tag libraries.
+     *
+     * @param tempDir temporary directory for the upgrade stages
+     *
+     * @throws IOException        if a stage could not be read
+     * @throws GeneratorException any error during generation
+     */
+    @Test
+    @DisplayName("Test writing the upgrade stages of the tag libraries.")
+    void tldDocDumpStages(@TempDir Path tempDir) throws IOException, GeneratorException {
+        Path stages = tempDir.resolve("stages");
+        List<String> converted = new ArrayList<>();
+        TldDocGenerator generator = new TldDocGenerator();
+        generator.setVerbose(true);
+        generator.setDumpStagesDirectory(stages);
+        generator.setGenerationListener(new GenerationListener() {
+            @Override
+            public void tldConverted(String stylesheet, String result) {
+                converted.add(result);
+            }
+        });
+        generator.addTld(Paths.get("target", "test-classes", "jsp11.tld"));
+        generator.addTld(Paths.get("target", "test-classes", "jsp20.tld"));
+        generator.generateInMemory();
+
+        List<String> expected = List.of(
+                "001-jsp11.tld-tld1_1-tld1_2.xml",
+                "001-jsp11.tld-tld1_2-tld2_0.xml",
+                "001-jsp11.tld-tld2_0-tld2_1.xml",
+                "001-jsp11.tld-tld2_1-tld3_0.xml",
+                "001-jsp11.tld-tld3_0-tld3_1.xml",
+                "001-jsp11.tld-tld3_1-tld4_0.xml",
+                "001-jsp11.tld-tld4_0-tld4_0.xml",
+                "002-jsp20.tld-tld2_0-tld2_1.xml",
+                "002-jsp20.tld-tld2_1-tld3_0.xml",
+                "002-jsp20.tld-tld3_0-tld3_1.xml",
+                "002-jsp20.tld-tld3_1-tld4_0.xml",
+                "002-jsp20.tld-tld4_0-tld4_0.xml");
+        assertEquals(expected.size(), converted.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Path stage = stages.resolve(expected.get(i));
+            assertTrue(Files.isReadable(stage), () -> "Stage not written: " + stage);
+            assertEquals(converted.get(i), Files.readString(stage),
+                    () -> stage + " differs from the verbose output");
+        }
+    }
+
+    /**
+     * Generates the documentation of all JSP test TLDs in memory.
+     *
+     * @param threads the number of threads loading the tag libraries
+     * @param loaded  receives the short-names of the loaded tag libraries
+     *
+     * @return the generated files
+     *
+     * @throws GeneratorException any error during generation
+     */
+    private static Map<String, byte[]> generateJspTlds(int threads, List<String> loaded)
+            throws GeneratorException {
+
+        TldDocGenerator generator = new TldDocGenerator();
+        generator.setThreads(threads);
+        generator.setGenerationListener(new GenerationListener() {
+            @Override
+            public void libraryLoaded(TagLibrary tagLibrary, String shortName) {
+                loaded.add(shortName);
+            }
+        });
+        for (String jspVersion : new String[]{"11", "12", "20"}) {
+            generator.addTld(Paths.get("target", "test-classes", "jsp" + jspVersion + ".tld"));
+        }
+        return generator.generateInMemory();
+    }
+
+    /**
+     * Generates the documentation of all JSP test TLDs in memory.
+     *
+     * @param streaming {@code true} to generate in streaming mode
+     *
+     * @return the generated files
+     *
+     * @throws GeneratorException any error during generation
+     */
+    private static Map<String, byte[]> generateJspTlds(boolean streaming)
+            throws GeneratorException {
+
+        TldDocGenerator generator = new TldDocGenerator();
+        generator.setQuiet(true);
+        generator.setStreaming(streaming);
+        for (String jspVersion : new String[]{"11", "12", "20"}) {
+            generator.addTld(Paths.get("target", "test-classes", "jsp" + jspVersion + ".tld"));
+        }
+        return generator.generateInMemory();
+    }
+
+    /**
+     * Test the generation listener of a TldDoc generation.
+     *
+     * @throws GeneratorException any error during the generation
+     */
+    @Test
+    @DisplayName("Test the generation listener of a TldDoc generation.")
+    void tldDocListener() throws GeneratorException {
+        List<String> loaded = new ArrayList<>();
+        List<String> pages = new ArrayList<>();
+        TldDocGenerator generator = new TldDocGenerator();
+        generator.setGenerationListener(new GenerationListener() {
+            @Override
+            public void libraryLoaded(TagLibrary tagLibrary, String shortName) {
+                loaded.add(shortName);
+            }
+
+            @Override
+            public void pageWritten(String path) {
+                pages.add(path);
+            }
+        });
+        generator.addTld(Paths.get("target", "test-classes", "jsp20.tld"));
+        Map<String, byte[]> files = generator.generateInMemory();
+
+        assertEquals(List.of("jsp20_test"), loaded);
+        assertEquals(new ArrayList<>(files.keySet()), pages);
+    }
+
+    /**
+     * Test the statistics of a TldDoc generation.
+     *
+     * @throws GeneratorException any error during the generation
+     */
+    @Test
+    @DisplayName("Test the statistics of a TldDoc generation.")
+    void tldDocStats() throws GeneratorException {
+        TldDocGenerator generator = new TldDocGenerator();
+        generator.setQuiet(true);
+        generator.setStatsLimit(5);
+        generator.addTld(Paths.get("target", "test-classes", "jsp20.tld"));
+        Map<String, byte[]> files = generator.generateInMemory();
+
+        GenerationStats stats = generator.getStats();
+        assertEquals(1, stats.getPhase(GenerationStats.Phase.DISCOVERY).getCount());
+        assertEquals(1, stats.getPhase(GenerationStats.Phase.LOAD).getCount());
+        // All files but the copied stylesheet.css and search.html
+        assertEquals(files.size() - 2, stats.getCount(GenerationStats.Item.PAGE));
+        assertEquals(6, stats.getPhase(GenerationStats.Phase.OVERVIEW).getCount());
+        assertEquals(3, stats.getSlowest(GenerationStats.Item.PAGE, 3).size());
+        List<GenerationStats.Timing> slowest = stats.getSlowest(GenerationStats.Item.PAGE,
+                Integer.MAX_VALUE);
+        assertEquals(5, slowest.size());
+        assertTrue(slowest.get(0).getNanos() >= slowest.get(4).getNanos());
+        assertTrue(stats.getTotalNanos() > 0);
+        assertTrue(stats.toJson().contains("\"generateTldDetail\""));
+
+        // Without a limit only the phases are recorded
+        TldDocGenerator phasesOnly = new TldDocGenerator();
+        phasesOnly.setQuiet(true);
+        phasesOnly.addTld(Paths.get("target", "test-classes", "jsp20.tld"));
+        phasesOnly.generateInMemory();
+        assertEquals(files.size() - 2, phasesOnly.getStats().getCount(GenerationStats.Item.PAGE));
+        assertTrue(phasesOnly.getStats().getSlowest(GenerationStats.Item.PAGE, 3).isEmpty());
+    }
+
+    /**
+     * Test the flight recorder events of a TldDoc generation.
+     *
+     * @param tempDir temporary directory for the recording
+     *
+     * @throws IOException        if the recording could not be written or read
+     * @throws GeneratorException any error during the generation
+     */
+    @Test
+    @DisplayName("Test the flight recorder events of a TldDoc generation.")
+    void tldDocFlightRecorder(@TempDir Path tempDir) throws IOException, GeneratorException {
+        Path file = tempDir.resolve("tlddoc.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("io.github.weblegacy.tlddoc.TagLibraryLoad");
+            recording.enable("io.github.weblegacy.tlddoc.ConvertTld");
+            recording.enable("io.github.weblegacy.tlddoc.TagFileParse");
+            recording.enable("io.github.weblegacy.tlddoc.GeneratePage");
+            recording.start();
+
+            TldDocGenerator generator = new TldDocGenerator();
+            generator.setQuiet(true);
+            generator.addTld(Paths.get("target", "test-classes", "jsp11.tld"));
+            generator.generateInMemory();
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        Set<String> events = new HashSet<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+            events.add(event.getEventType().getName());
+            if ("io.github.weblegacy.tlddoc.GeneratePage".equals(event.getEventType().getName())) {
+                assertTrue(event.getLong("bytesWritten") > 0);
+            }
+        }
+        assertTrue(events.contains("io.github.weblegacy.tlddoc.TagLibraryLoad"));
+        assertTrue(events.contains("io.github.weblegacy.tlddoc.ConvertTld"));
+        assertTrue(events.contains("io.github.weblegacy.tlddoc.GeneratePage"));
+    }
+
+    /**
+     * Test serving TldDoc over HTTP.
+     *
+     * @throws IOException        if a page could not be requested
+     * @throws GeneratorException any error while loading the tag libraries
+     */
+    @Test
+    @DisplayName("Test serving TldDoc over HTTP.")
+    void tldDocServer() throws IOException, GeneratorException {
+        TldDocGenerator generator = new TldDocGenerator();
+        generator.setQuiet(true);
+        generator.addTld(Paths.get("target", "test-classes", "jsp20.tld"));
+
+        TldDocServer server = new TldDocServer(generator, TldDocServer.DEFAULT_CACHE_SIZE);
+        server.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        try {
+            String base = "http://localhost:" + server.getAddress().getPort() + "/";
+            assertEquals(200, responseCode(base + "jsp20_test/tagA.html"));
+            assertEquals(200, responseCode(base + "jsp20_test/tagA.html"));
+            assertEquals(404, responseCode(base + "jsp20_test/unknown.html"));
+        } finally {
+            server.stop();
+        }
+    }
+
+    /**
+     * Test rendering single pages of TldDoc.
+     *
+     * @throws GeneratorException any error while rendering the pages
+     */
+    @Test
+    @DisplayName("Test rendering single pages of TldDoc.")
+    void tldDocRenderSinglePage() throws GeneratorException {
+        TldDocGenerator generator = new TldDocGenerator();
+        generator.setQuiet(true);
+        generator.addTld(Paths.get("target", "test-classes", "jsp20.tld"));
+        generator.load();
+
+        StringWriter tag = new StringWriter();
+        assertTrue(generator.renderTag("jsp20_test", "tagA", tag));
+        assertTrue(tag.toString().contains("tagA"));
+
+        StringWriter function = new StringWriter();
+        assertTrue(generator.renderFunction("jsp20_test", "tag_func1", function));
+        assertTrue(function.toString().contains("tag_func1"));
+
+        assertFalse(generator.renderTag("jsp20_test", "unknown", new StringWriter()));
+        assertFalse(generator.renderTag("unknown", "tagA", new StringWriter()));
+        assertFalse(generator.renderFunction("jsp20_test", "unknown", new StringWriter()));
+    }
+
+    /**
+     * Requests the given URL and returns the HTTP response code.
+     *
+     * @param url the URL to request
+     *
+     * @return the HTTP response code
+     *
+     * @throws IOException if the URL could not be requested
+     */
+    private static int responseCode(String url) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        try {
+            int code = connection.getResponseCode();
+            if (code == HttpURLConnection.HTTP_OK) {
+                try (InputStream in = connection.getInputStream()) {
+                    in.readAllBytes();
+                }
+            }
+            return code;
+        } finally {
+            connection.disconnect();
+        }
+    }
 }
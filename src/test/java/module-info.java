@@ -36,6 +36,8 @@
  */
 open module io.github.weblegacy.tlddoc.test {
     requires io.github.weblegacy.tlddoc;
+    requires java.management;
+    requires jdk.jfr;
 
     requires transitive org.junit.jupiter.api;
     requires transitive org.junit.jupiter.params;